@@ -0,0 +1,107 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.benchmarks;
+
+import com.feedzai.commons.ls.languageserver.CompletionServiceRegistry;
+import com.feedzai.commons.ls.languageserver.FeedzaiTextDocumentService;
+import com.feedzai.commons.ls.languageserver.impl.concurrent.RequestExecutors;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Completion Benchmark. Measures the latency of a completion request as seen on each keystroke.
+ *
+ * @since 0.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompletionBenchmark {
+  /** The document URI. */
+  private static final String URI = "file:///benchmark/patches.json";
+
+  /** The number of completion items. */
+  @Param({"1000", "50000"})
+  public int items;
+
+  /** The word typed before the cursor. */
+  @Param({"a", "add", "path"})
+  public String prefix;
+
+  /** The text document service. */
+  private FeedzaiTextDocumentService textDocumentService;
+
+  /** The completion request. */
+  private CompletionParams completionParams;
+
+  /** The request executor. */
+  private ExecutorService executor;
+
+  /** Create the service and open a document with the prefix typed inside an array. */
+  @Setup
+  public void setUp() {
+    this.executor = RequestExecutors.create();
+    this.textDocumentService = new FeedzaiTextDocumentService(this.executor);
+    this.textDocumentService.setWorkspace(
+        new CompletionServiceRegistry(List.of(new SyntheticCompletionService(this.items)))
+            .open(List.of()));
+
+    this.textDocumentService.didOpen(
+        new DidOpenTextDocumentParams(
+            new TextDocumentItem(URI, "json", 1, "[\n  " + this.prefix + "\n]")));
+
+    this.completionParams =
+        new CompletionParams(
+            new TextDocumentIdentifier(URI), new Position(1, 2 + this.prefix.length()));
+  }
+
+  /** Stop the request executor. */
+  @TearDown
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  /**
+   * Request completions.
+   *
+   * @return The completions.
+   * @throws ExecutionException If the completion fails.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  @Benchmark
+  public Either<List<CompletionItem>, CompletionList> completion()
+      throws ExecutionException, InterruptedException {
+    return this.textDocumentService.completion(this.completionParams).get();
+  }
+}
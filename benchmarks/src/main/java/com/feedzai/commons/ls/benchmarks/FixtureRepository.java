@@ -0,0 +1,228 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import lombok.Getter;
+
+/**
+ * Fixture Repository. Generates a local Maven repository with a synthetic json-patcher-lib JAR, so
+ * the benchmarks need no network and always measure the same input.
+ *
+ * @since 0.1.0
+ */
+public final class FixtureRepository {
+  /** The group ID of the fixture artifact. */
+  public static final String GROUP_ID = "com.feedzai.commons.json-patcher";
+
+  /** The artifact ID of the fixture artifact. */
+  public static final String ARTIFACT_ID = "json-patcher-lib";
+
+  /** The depth of the nested model classes. */
+  private static final int MODEL_DEPTH = 6;
+
+  /** The user home holding the repository. */
+  @Getter private final Path home;
+
+  /** The latest version. */
+  @Getter private final String version;
+
+  /** The JAR file of the latest version. */
+  @Getter private final Path jarFile;
+
+  /**
+   * Constructor.
+   *
+   * @param home The user home holding the repository.
+   * @param version The latest version.
+   * @param jarFile The JAR file of the latest version.
+   */
+  private FixtureRepository(Path home, String version, Path jarFile) {
+    this.home = home;
+    this.version = version;
+    this.jarFile = jarFile;
+  }
+
+  /**
+   * Create a fixture repository in a temporary directory.
+   *
+   * @param patches The number of patch classes, and of condition classes.
+   * @param versions The number of version directories.
+   * @return The fixture repository.
+   */
+  public static FixtureRepository create(int patches, int versions) {
+    try {
+      final Path home = Files.createTempDirectory("feedzails-benchmarks");
+      final Path artifactDirectory =
+          home.resolve(".m2")
+              .resolve("repository")
+              .resolve(GROUP_ID.replace('.', '/'))
+              .resolve(ARTIFACT_ID);
+
+      String version = null;
+      for (int i = 0; i < versions; i++) {
+        version = String.format("1.%d.%d", i / 10, i % 10);
+        Files.createDirectories(artifactDirectory.resolve(version));
+      }
+
+      final Path jarFile =
+          artifactDirectory.resolve(version).resolve(ARTIFACT_ID + "-" + version + ".jar");
+      writeJar(home.resolve("fixture"), jarFile, patches);
+
+      return new FixtureRepository(home, version, jarFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Point the Maven and cache lookups of the language server at this repository.
+   *
+   * @return This repository.
+   */
+  public FixtureRepository install() {
+    System.setProperty("user.home", this.home.toString());
+    System.setProperty("feedzails.cache.dir", this.home.resolve("cache").toString());
+
+    return this;
+  }
+
+  /** Delete the repository. */
+  public void delete() {
+    try (Stream<Path> paths = Files.walk(this.home)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Generate, compile and package the fixture classes.
+   *
+   * @param work The working directory.
+   * @param jarFile The JAR file to write.
+   * @param patches The number of patch classes, and of condition classes.
+   * @throws IOException If the classes cannot be written.
+   */
+  private static void writeJar(Path work, Path jarFile, int patches) throws IOException {
+    final Path sources = work.resolve("src");
+    final Path classes = work.resolve("classes");
+    final List<String> files = new ArrayList<>();
+
+    final String model = "com.feedzai.commons.json.patch.model";
+    for (int depth = 0; depth < MODEL_DEPTH; depth++) {
+      final String child =
+          depth + 1 < MODEL_DEPTH
+              ? String.format("public Target%d getChild() { return null; }", depth + 1)
+              : "";
+      files.add(
+          writeSource(
+              sources,
+              model,
+              "Target" + depth,
+              String.format(
+                  "public final class Target%d { public String getName() { return null; } public"
+                      + " boolean isEnabled() { return false; } public java.util.List<String>"
+                      + " getTags() { return null; } %s }",
+                  depth, child)));
+    }
+    files.add(writeSource(sources, model, "Mode", "public enum Mode { FIRST, LAST, ALL, NONE }"));
+
+    final String instruction = "com.feedzai.commons.json.patch.instruction";
+    files.add(
+        writeSource(
+            sources,
+            instruction,
+            "PathPatchInstruction",
+            "public interface PathPatchInstruction { String getPath(); }"));
+
+    for (int i = 0; i < patches; i++) {
+      files.add(
+          writeSource(
+              sources,
+              instruction + ".impl",
+              String.format("ImmutableBench%dPathPatchInstruction", i),
+              String.format(
+                  "public final class ImmutableBench%dPathPatchInstruction implements %s"
+                      + ".PathPatchInstruction { public String getPath() { return null; } public"
+                      + " java.util.List<String> getValues() { return null; } public %s.Target0"
+                      + " getTarget() { return null; } public %s.Mode getMode() { return null; }"
+                      + " public int getCount() { return 0; } public static final class Builder"
+                      + " {} }",
+                  i, instruction, model, model)));
+      files.add(
+          writeSource(
+              sources,
+              "com.feedzai.commons.json.patch.conditional.impl",
+              String.format("ImmutableBench%d", i),
+              String.format(
+                  "public final class ImmutableBench%d { public double getValue() { return 0; }"
+                      + " public String getPath() { return null; } }",
+                  i)));
+    }
+
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("The benchmarks need a JDK to generate the fixture");
+    }
+
+    final List<String> arguments = new ArrayList<>(List.of("-d", classes.toString()));
+    arguments.addAll(files);
+    if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+      throw new IllegalStateException("Could not compile the fixture classes");
+    }
+
+    try (OutputStream outputStream = Files.newOutputStream(jarFile);
+        JarOutputStream jarOutputStream = new JarOutputStream(outputStream);
+        Stream<Path> paths = Files.walk(classes)) {
+      for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+        jarOutputStream.putNextEntry(
+            new JarEntry(classes.relativize(path).toString().replace('\\', '/')));
+        jarOutputStream.write(Files.readAllBytes(path));
+        jarOutputStream.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Write a source file.
+   *
+   * @param sources The source root.
+   * @param packageName The package.
+   * @param className The class name.
+   * @param body The class declaration.
+   * @return The source file path.
+   * @throws IOException If the file cannot be written.
+   */
+  private static String writeSource(Path sources, String packageName, String className, String body)
+      throws IOException {
+    final Path directory = sources.resolve(packageName.replace('.', '/'));
+    Files.createDirectories(directory);
+
+    final Path file = directory.resolve(className + ".java");
+    Files.write(
+        file,
+        String.format("package %s;%n%n%s%n", packageName, body).getBytes(StandardCharsets.UTF_8));
+
+    return file.toString();
+  }
+}
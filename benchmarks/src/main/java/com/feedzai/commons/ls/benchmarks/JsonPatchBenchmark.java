@@ -0,0 +1,105 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.jsonSchema.JsonSchemaGenerator;
+import com.feedzai.commons.ls.languageserver.impl.completion.patches.JsonPatch;
+import com.feedzai.commons.ls.languageserver.impl.completion.patches.SnippetRenderer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Json Patch Benchmark. Measures the snippet generation of {@link JsonPatch}.
+ *
+ * @since 0.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonPatchBenchmark {
+  /** The number of patch classes, and of condition classes. */
+  @Param({"50"})
+  public int patches;
+
+  /** The fixture repository. */
+  private FixtureRepository fixtureRepository;
+
+  /** The patches. */
+  private final List<JsonPatch> jsonPatches = new ArrayList<>();
+
+  /**
+   * Create the fixture and generate the schemas.
+   *
+   * @throws Exception If the classes cannot be loaded or the schemas generated.
+   */
+  @Setup
+  public void setUp() throws Exception {
+    this.fixtureRepository = FixtureRepository.create(this.patches, 1);
+
+    final JsonSchemaGenerator generator = new JsonSchemaGenerator(new ObjectMapper());
+    try (URLClassLoader classLoader =
+        new URLClassLoader(new URL[] {this.fixtureRepository.getJarFile().toUri().toURL()})) {
+      for (int i = 0; i < this.patches; i++) {
+        final Class<?> cls =
+            classLoader.loadClass(
+                String.format(
+                    "com.feedzai.commons.json.patch.instruction.impl"
+                        + ".ImmutableBench%dPathPatchInstruction",
+                    i));
+        this.jsonPatches.add(
+            new JsonPatch(
+                String.format("Bench%d patch", i),
+                cls.getSimpleName(),
+                generator.generateSchema(cls)));
+      }
+    }
+  }
+
+  /** Delete the fixture. */
+  @TearDown
+  public void tearDown() {
+    this.fixtureRepository.delete();
+  }
+
+  /**
+   * Generate the snippets of every patch, as an indexing run does: fresh patches sharing one
+   * renderer, since a patch memoizes its snippet.
+   *
+   * @param blackhole The blackhole.
+   */
+  @Benchmark
+  public void toSnippet(Blackhole blackhole) {
+    final SnippetRenderer renderer = new SnippetRenderer();
+    for (JsonPatch jsonPatch : this.jsonPatches) {
+      blackhole.consume(
+          new JsonPatch(jsonPatch.getLabel(), jsonPatch.getDetail(), jsonPatch.getSchema())
+              .toSnippet(renderer));
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.benchmarks;
+
+import com.feedzai.commons.ls.languageserver.impl.completion.JsonPatcherService;
+import com.feedzai.commons.ls.languageserver.impl.completion.patches.JsonPatch;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Json Patcher Benchmark. Measures the startup indexing steps of {@link JsonPatcherService}.
+ *
+ * @since 0.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonPatcherBenchmark {
+  /** The number of patch classes, and of condition classes. */
+  @Param({"50", "500"})
+  public int patches;
+
+  /** The fixture repository. */
+  private FixtureRepository fixtureRepository;
+
+  /** The service. */
+  private JsonPatcherService jsonPatcherService;
+
+  /** Create the fixture and the service. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.fixtureRepository = FixtureRepository.create(this.patches, 1).install();
+    this.jsonPatcherService = new JsonPatcherService();
+  }
+
+  /** Delete the fixture. */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.fixtureRepository.delete();
+  }
+
+  /**
+   * Scan the JAR and load the patch classes.
+   *
+   * @return The classes.
+   * @throws IOException If the class loader cannot be created.
+   */
+  @Benchmark
+  public List<Class<?>> loadClassesFromJar() throws IOException {
+    try (URLClassLoader freshClassLoader = createClassLoader()) {
+      return this.jsonPatcherService.getClasses(freshClassLoader, getJarFile());
+    }
+  }
+
+  /**
+   * Generate the schemas of the loaded classes.
+   *
+   * @param loadedClasses The classes, loaded fresh for this invocation.
+   * @return The patches.
+   */
+  @Benchmark
+  public List<JsonPatch> createPatches(LoadedClasses loadedClasses) {
+    return this.jsonPatcherService.createPatches(loadedClasses.classes);
+  }
+
+  /**
+   * Create a class loader for the fixture JAR file, as the service does when indexing.
+   *
+   * @return The class loader.
+   * @throws IOException If the JAR file path is invalid.
+   */
+  private URLClassLoader createClassLoader() throws IOException {
+    return URLClassLoader.newInstance(
+        new URL[] {this.fixtureRepository.getJarFile().toUri().toURL()});
+  }
+
+  /**
+   * Get the fixture JAR file.
+   *
+   * @return The JAR file path.
+   */
+  private String getJarFile() {
+    return this.fixtureRepository.getJarFile().toString();
+  }
+
+  /**
+   * Loaded Classes. Loads the patch classes in a fresh class loader for every invocation, so no
+   * invocation sees classes or schemas cached by the previous one.
+   */
+  @State(Scope.Thread)
+  public static class LoadedClasses {
+    /** The class loader. */
+    private URLClassLoader classLoader;
+
+    /** The classes. */
+    private List<Class<?>> classes;
+
+    /**
+     * Load the classes.
+     *
+     * @param benchmark The benchmark.
+     * @throws IOException If the class loader cannot be created.
+     */
+    @Setup(Level.Invocation)
+    public void setUp(JsonPatcherBenchmark benchmark) throws IOException {
+      this.classLoader = benchmark.createClassLoader();
+      this.classes =
+          benchmark.jsonPatcherService.getClasses(this.classLoader, benchmark.getJarFile());
+    }
+
+    /**
+     * Close the class loader.
+     *
+     * @throws IOException If the class loader cannot be closed.
+     */
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+      this.classLoader.close();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.benchmarks;
+
+import com.feedzai.commons.ls.languageserver.impl.maven.MavenService;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Maven Service Benchmark. Measures the version lookup of {@link MavenService} over a synthetic
+ * local repository.
+ *
+ * @since 0.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MavenServiceBenchmark {
+  /** The number of version directories. */
+  @Param({"10", "1000"})
+  public int versions;
+
+  /** The fixture repository. */
+  private FixtureRepository fixtureRepository;
+
+  /** The service. */
+  private MavenService mavenService;
+
+  /** Create the fixture and the service. */
+  @Setup
+  public void setUp() {
+    this.fixtureRepository = FixtureRepository.create(1, this.versions).install();
+    this.mavenService = new MavenService();
+  }
+
+  /** Delete the fixture. */
+  @TearDown
+  public void tearDown() {
+    this.fixtureRepository.delete();
+  }
+
+  /**
+   * Resolve the latest version of the fixture artifact.
+   *
+   * @return The version.
+   */
+  @Benchmark
+  public Optional<String> getVersion() {
+    return this.mavenService.getVersion(FixtureRepository.GROUP_ID, FixtureRepository.ARTIFACT_ID);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.benchmarks;
+
+import com.feedzai.commons.ls.languageserver.api.CompletionService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.Getter;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.InsertTextFormat;
+
+/**
+ * Synthetic Completion Service. Serves a fixed number of generated snippets, for benchmarks that
+ * need many completion items without indexing a JAR.
+ *
+ * @since 0.1.0
+ */
+public final class SyntheticCompletionService implements CompletionService {
+  /** The words the labels are made of. */
+  private static final String[] WORDS = {
+    "add",
+    "remove",
+    "replace",
+    "move",
+    "copy",
+    "test",
+    "greater",
+    "less",
+    "equal",
+    "contains",
+    "path",
+    "value",
+    "target",
+    "condition",
+    "patch",
+    "array",
+    "object",
+    "string",
+    "number"
+  };
+
+  /** The completion items. */
+  @Getter private final List<CompletionItem> completionItems;
+
+  /**
+   * Constructor.
+   *
+   * @param items The number of completion items.
+   */
+  public SyntheticCompletionService(int items) {
+    final Random random = new Random(items);
+    this.completionItems = new ArrayList<>(items);
+
+    for (int i = 0; i < items; i++) {
+      final String label =
+          String.format(
+              "%s%d %s",
+              WORDS[random.nextInt(WORDS.length)], i, WORDS[random.nextInt(WORDS.length)]);
+      final CompletionItem completionItem = new CompletionItem(label);
+      completionItem.setKind(CompletionItemKind.Snippet);
+      completionItem.setDetail(label);
+      completionItem.setInsertText("{\n\t\"op\": \"" + label + "\",\n\t\"path\": \"$1\"\n}");
+      completionItem.setInsertTextFormat(InsertTextFormat.Snippet);
+      this.completionItems.add(completionItem);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "synthetic";
+  }
+
+  @Override
+  public String getVersion() {
+    return "1.0.0";
+  }
+
+  @Override
+  public void index() {}
+
+  @Override
+  public boolean isReady() {
+    return true;
+  }
+
+  @Override
+  public List<String> getAssociatedFileExtensions() {
+    return List.of("json");
+  }
+}
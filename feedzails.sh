@@ -11,11 +11,52 @@
 
 # This script is used to launch the lsp server.
 
+# with --connect [port], bridge stdio to a shared server, sending the secret first.
+if [ "$1" = "--connect" ]; then
+	if [ -z "$FEEDZAILS_TOKEN" ]; then
+		echo "Set FEEDZAILS_TOKEN to the secret the shared server was started with." >&2
+		exit 1
+	fi
+	exec 3<>"/dev/tcp/127.0.0.1/${2:-5007}" || exit 1
+	printf '%s\n' "$FEEDZAILS_TOKEN" >&3
+	cat <&3 &
+	exec cat >&3
+fi
+
 JAVA=$(find ~/.sdkman/candidates/java/*/bin/java | grep -v "current" | sort -V | tail -n 1)
-JAVA_VERSION=$("$JAVA" -version 2>&1 | head -n 1 | cut -d'"' -f2 | cut -d'.' -f1)
+JAVA_FULL_VERSION=$("$JAVA" -version 2>&1 | head -n 1 | cut -d'"' -f2)
+JAVA_VERSION=$(echo "$JAVA_FULL_VERSION" | cut -d'.' -f1)
 if [ "$JAVA_VERSION" -lt 11 ]; then
 	echo "No Java version >= 11 found. Please install one with the command: sdk install java [version]"
 	exit 1
 fi
 
-"$JAVA" -jar "$(dirname "$0")"/language-server-launcher/target/language-server-launcher.jar
+JAR="$(dirname "$0")"/language-server-launcher/target/language-server-launcher.jar
+
+# JVM logging is kept off stdout, which carries the protocol.
+JAVA_OPTS=(-Xlog:disable -Xlog:all=error:stderr)
+
+# a stdio server lives as long as one editor session, so it is tuned for startup: the serial
+# collector and the C1 compiler only. The long-running --socket server keeps the JVM defaults, and
+# FEEDZAILS_STARTUP_OPTS=false turns the tuning off for stdio too.
+if [ "$1" != "--socket" ] && [ "${FEEDZAILS_STARTUP_OPTS:-true}" != "false" ]; then
+	JAVA_OPTS+=(-XX:+UseSerialGC -XX:TieredStopAtLevel=1)
+fi
+
+# the class data sharing archive recorded by the build, if it was built with this Java version.
+CDS_ARCHIVE="${JAR%.jar}-$JAVA_FULL_VERSION.jsa"
+if [ -f "$CDS_ARCHIVE" ]; then
+	JAVA_OPTS+=(-XX:SharedArchiveFile="$CDS_ARCHIVE")
+fi
+
+# extra flags, e.g. FEEDZAILS_JAVA_OPTS="-Xmx1g", are appended and take precedence.
+# shellcheck disable=SC2206
+JAVA_OPTS+=($FEEDZAILS_JAVA_OPTS)
+
+# with --socket [port], serve every editor from one process on a local port instead of stdio. The
+# clients must send FEEDZAILS_TOKEN first, e.g. through --connect.
+if [ "$1" = "--socket" ]; then
+	exec "$JAVA" "${JAVA_OPTS[@]}" -cp "$JAR" com.feedzai.commons.ls.launcher.SocketLauncher "${2:-5007}"
+fi
+
+exec "$JAVA" "${JAVA_OPTS[@]}" -jar "$JAR"
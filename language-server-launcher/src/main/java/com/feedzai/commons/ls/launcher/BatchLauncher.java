@@ -0,0 +1,439 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.launcher;
+
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
+import com.feedzai.commons.ls.languageserver.impl.completion.JsonPatcherService;
+import com.feedzai.commons.ls.languageserver.impl.diagnostics.SchemaValidator;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Batch Launcher. Validates patch files against the json-patcher schemas, the same way the
+ * editor does, on all cores, and writes a JSON or SARIF report. Exits with 1 if any file has
+ * errors, and 2 if the validation could not run.
+ *
+ * @since 0.1.0
+ */
+public final class BatchLauncher {
+  /** The usage. */
+  private static final String USAGE =
+      "Usage: BatchLauncher [--format json|sarif] [--output <file>] <file or directory>...";
+
+  /** The exit code when a file has errors. */
+  private static final int EXIT_ERRORS = 1;
+
+  /** The exit code when the validation could not run. */
+  private static final int EXIT_FAILURE = 2;
+
+  /** The extension of the validated files. */
+  private static final String JSON_EXTENSION = ".json";
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchLauncher.class);
+
+  /** The report format. */
+  private final String format;
+
+  /** The report file, or null for the standard output. */
+  private final Path output;
+
+  /** The files and directories to validate. */
+  private final List<Path> paths;
+
+  /** The number of validated files. */
+  private final LongAdder files = new LongAdder();
+
+  /** The number of files with errors. */
+  private final LongAdder failedFiles = new LongAdder();
+
+  /** The number of errors. */
+  private final LongAdder errors = new LongAdder();
+
+  /** The number of warnings. */
+  private final LongAdder warnings = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param format The report format.
+   * @param output The report file, or null for the standard output.
+   * @param paths The files and directories to validate.
+   */
+  private BatchLauncher(String format, Path output, List<Path> paths) {
+    this.format = format;
+    this.output = output;
+    this.paths = paths;
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args The arguments.
+   */
+  public static void main(final String[] args) {
+    LogManager.getLogManager().reset();
+    java.util.logging.Logger.getLogger(java.util.logging.Logger.GLOBAL_LOGGER_NAME)
+        .setLevel(Level.OFF);
+
+    String format = "json";
+    Path output = null;
+    final List<Path> paths = new ArrayList<>();
+
+    for (int i = 0; i < args.length; i++) {
+      if ("--format".equals(args[i]) && i + 1 < args.length) {
+        format = args[++i];
+      } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+        output = Path.of(args[++i]);
+      } else if (args[i].startsWith("--")) {
+        paths.clear();
+        break;
+      } else {
+        paths.add(Path.of(args[i]));
+      }
+    }
+
+    if (paths.isEmpty() || !("json".equals(format) || "sarif".equals(format))) {
+      System.err.println(USAGE);
+      System.exit(EXIT_FAILURE);
+    }
+
+    System.exit(new BatchLauncher(format, output, paths).run());
+  }
+
+  /**
+   * Validate the files and write the report.
+   *
+   * @return The exit code.
+   */
+  private int run() {
+    final long start = System.nanoTime();
+
+    final JsonPatcherService jsonPatcherService = new JsonPatcherService();
+    jsonPatcherService.setWorkspaceFolders(getWorkspaceFolders(this.paths));
+    jsonPatcherService.index();
+
+    if (!jsonPatcherService.isReady()) {
+      LOGGER.error("No json-patcher schemas to validate against");
+      return EXIT_FAILURE;
+    }
+
+    final int threads = Runtime.getRuntime().availableProcessors();
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads,
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "feedzails-batch-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    try (OutputStream out =
+            this.output == null ? System.out : new FileOutputStream(this.output.toFile());
+        BatchReport report = BatchReport.create(this.format, out)) {
+      report.begin();
+      this.validate(List.of(jsonPatcherService), report, executor, threads);
+      report.end(this.files.sum(), this.failedFiles.sum(), this.errors.sum(), this.warnings.sum());
+    } catch (IOException e) {
+      LOGGER.error("Could not write the report", e);
+      return EXIT_FAILURE;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return EXIT_FAILURE;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    LOGGER.info(
+        "Validated {} files in {} ms: {} errors in {} files, {} warnings",
+        this.files.sum(),
+        (System.nanoTime() - start) / 1_000_000,
+        this.errors.sum(),
+        this.failedFiles.sum(),
+        this.warnings.sum());
+
+    return this.errors.sum() > 0 ? EXIT_ERRORS : 0;
+  }
+
+  /**
+   * Validate every file under the paths, as the paths are walked. At most two files per thread are
+   * read or queued at once, so memory does not grow with the number of files. Files and directories
+   * that cannot be walked are reported with an error, and the walk goes on.
+   *
+   * @param schemaServices The schema services.
+   * @param report The report.
+   * @param executor The validation executor.
+   * @param threads The number of validation threads.
+   * @throws IOException If the report cannot be written.
+   * @throws InterruptedException If interrupted.
+   */
+  private void validate(
+      List<SchemaService> schemaServices, BatchReport report, ExecutorService executor, int threads)
+      throws IOException, InterruptedException {
+    final int maxInFlight = 2 * threads;
+    final Semaphore inFlight = new Semaphore(maxInFlight);
+    final AtomicReference<IOException> reportError = new AtomicReference<>();
+    final Path workingDirectory = Path.of("").toAbsolutePath();
+
+    for (Path path : this.paths) {
+      walk(
+          path,
+          file -> {
+            inFlight.acquire();
+            executor.execute(
+                () -> {
+                  try {
+                    this.record(
+                        report,
+                        getReportPath(workingDirectory, file),
+                        validate(file, schemaServices));
+                  } catch (IOException e) {
+                    reportError.compareAndSet(null, e);
+                  } finally {
+                    inFlight.release();
+                  }
+                });
+          },
+          (file, e) -> {
+            LOGGER.warn("Cannot walk {}: {}", file, e.toString());
+            this.record(
+                report,
+                getReportPath(workingDirectory, file),
+                List.of(fileError("Cannot read: " + e)));
+          });
+    }
+
+    inFlight.acquire(maxInFlight);
+
+    if (reportError.get() != null) {
+      throw reportError.get();
+    }
+  }
+
+  /**
+   * Validate a file.
+   *
+   * @param file The file.
+   * @param schemaServices The schema services.
+   * @return The diagnostics, with one error if the file cannot be read or validated.
+   */
+  private static List<Diagnostic> validate(Path file, List<SchemaService> schemaServices) {
+    final String text;
+    try {
+      text = Files.readString(file, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      return List.of(fileError("Cannot read file: " + e.getMessage()));
+    }
+
+    try {
+      return SchemaValidator.validate(
+          TextDocument.of(file.toUri().toString(), "json", 0, text), schemaServices);
+    } catch (RuntimeException e) {
+      LOGGER.error("Error validating file: {}", file, e);
+      return List.of(fileError("Cannot validate file: " + e));
+    }
+  }
+
+  /**
+   * Count the diagnostics of a file and add them to the report.
+   *
+   * @param report The report.
+   * @param reportPath The path of the file in the report.
+   * @param diagnostics The diagnostics of the file.
+   * @throws IOException If the report cannot be written.
+   */
+  private void record(BatchReport report, String reportPath, List<Diagnostic> diagnostics)
+      throws IOException {
+    this.count(diagnostics);
+    if (!diagnostics.isEmpty()) {
+      synchronized (report) {
+        report.add(reportPath, diagnostics);
+      }
+    }
+  }
+
+  /**
+   * Create an error about a whole file.
+   *
+   * @param message The message.
+   * @return The diagnostic, at the start of the file.
+   */
+  private static Diagnostic fileError(String message) {
+    return new Diagnostic(
+        new Range(new Position(0, 0), new Position(0, 0)),
+        message,
+        DiagnosticSeverity.Error,
+        "feedzails");
+  }
+
+  /**
+   * Count the validated file and its diagnostics.
+   *
+   * @param diagnostics The diagnostics of the file.
+   */
+  private void count(List<Diagnostic> diagnostics) {
+    this.files.increment();
+
+    long fileErrors = 0;
+    for (Diagnostic diagnostic : diagnostics) {
+      if (diagnostic.getSeverity() == DiagnosticSeverity.Warning) {
+        this.warnings.increment();
+      } else if (diagnostic.getSeverity() == DiagnosticSeverity.Error) {
+        fileErrors++;
+      }
+    }
+
+    if (fileErrors > 0) {
+      this.errors.add(fileErrors);
+      this.failedFiles.increment();
+    }
+  }
+
+  /**
+   * Get the workspace folders the json-patcher version is resolved from: the directories to
+   * validate, or the parent directories of the files.
+   *
+   * @param paths The files and directories to validate.
+   * @return The workspace folders.
+   */
+  private static List<Path> getWorkspaceFolders(List<Path> paths) {
+    final List<Path> folders = new ArrayList<>();
+
+    for (Path path : paths) {
+      final Path absolute = path.toAbsolutePath().normalize();
+      final Path folder = Files.isDirectory(absolute) ? absolute : absolute.getParent();
+      if (folder != null && !folders.contains(folder)) {
+        folders.add(folder);
+      }
+    }
+
+    return folders;
+  }
+
+  /**
+   * Get the path of a file in the report: relative to the working directory if inside it, with
+   * forward slashes.
+   *
+   * @param workingDirectory The working directory.
+   * @param file The file.
+   * @return The report path.
+   */
+  private static String getReportPath(Path workingDirectory, Path file) {
+    final Path absolute = file.toAbsolutePath().normalize();
+    final Path path =
+        absolute.startsWith(workingDirectory) ? workingDirectory.relativize(absolute) : absolute;
+
+    return path.toString().replace('\\', '/');
+  }
+
+  /**
+   * Walk a file or directory, skipping hidden directories, visiting the JSON files.
+   *
+   * @param path The file or directory.
+   * @param visitor The visitor of each JSON file.
+   * @param failureVisitor The visitor of each file or directory that cannot be walked.
+   * @throws IOException If the failure visitor fails.
+   * @throws InterruptedException If interrupted.
+   */
+  private static void walk(Path path, FileVisitor visitor, FailureVisitor failureVisitor)
+      throws IOException, InterruptedException {
+    if (!Files.isDirectory(path)) {
+      visitor.visit(path);
+      return;
+    }
+
+    final AtomicReference<InterruptedException> interrupted = new AtomicReference<>();
+    Files.walkFileTree(
+        path,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            return !dir.equals(path) && dir.getFileName().toString().startsWith(".")
+                ? FileVisitResult.SKIP_SUBTREE
+                : FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile() || !file.toString().endsWith(JSON_EXTENSION)) {
+              return FileVisitResult.CONTINUE;
+            }
+
+            try {
+              visitor.visit(file);
+              return FileVisitResult.CONTINUE;
+            } catch (InterruptedException e) {
+              interrupted.set(e);
+              return FileVisitResult.TERMINATE;
+            }
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+            failureVisitor.visit(file, e);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+
+    if (interrupted.get() != null) {
+      throw interrupted.get();
+    }
+  }
+
+  /** A visitor of the files to validate. */
+  @FunctionalInterface
+  private interface FileVisitor {
+    /**
+     * Visit a file.
+     *
+     * @param file The file.
+     * @throws InterruptedException If interrupted.
+     */
+    void visit(Path file) throws InterruptedException;
+  }
+
+  /** A visitor of the files and directories that cannot be walked. */
+  @FunctionalInterface
+  private interface FailureVisitor {
+    /**
+     * Visit a file or directory that cannot be walked.
+     *
+     * @param file The file or directory.
+     * @param e The error.
+     * @throws IOException If the failure cannot be reported.
+     */
+    void visit(Path file, IOException e) throws IOException;
+  }
+}
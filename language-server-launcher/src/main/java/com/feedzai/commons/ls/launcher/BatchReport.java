@@ -0,0 +1,241 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.launcher;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+
+/**
+ * Batch Report. Writes the diagnostics of a batch validation as they are found, so the report never
+ * holds more than one file.
+ *
+ * @since 0.1.0
+ */
+abstract class BatchReport implements Closeable {
+  /** The generator factory. */
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /** The report generator. */
+  protected final JsonGenerator generator;
+
+  /**
+   * Constructor.
+   *
+   * @param out The output stream, closed with the report.
+   * @throws IOException If the report cannot be written.
+   */
+  protected BatchReport(OutputStream out) throws IOException {
+    this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8).useDefaultPrettyPrinter();
+  }
+
+  /**
+   * Create a report.
+   *
+   * @param format The format, json or sarif.
+   * @param out The output stream, closed with the report.
+   * @return The report.
+   * @throws IOException If the report cannot be written.
+   * @throws IllegalArgumentException If the format is unknown.
+   */
+  static BatchReport create(String format, OutputStream out) throws IOException {
+    switch (format) {
+      case "json":
+        return new JsonReport(out);
+      case "sarif":
+        return new SarifReport(out);
+      default:
+        throw new IllegalArgumentException("Unknown report format: " + format);
+    }
+  }
+
+  /**
+   * Start the report.
+   *
+   * @throws IOException If the report cannot be written.
+   */
+  abstract void begin() throws IOException;
+
+  /**
+   * Add the diagnostics of a file. Called for files with diagnostics only, one file at a time.
+   *
+   * @param file The file path, relative to the working directory.
+   * @param diagnostics The diagnostics.
+   * @throws IOException If the report cannot be written.
+   */
+  abstract void add(String file, List<Diagnostic> diagnostics) throws IOException;
+
+  /**
+   * End the report.
+   *
+   * @param files The number of validated files.
+   * @param failedFiles The number of files with errors.
+   * @param errors The number of errors.
+   * @param warnings The number of warnings.
+   * @throws IOException If the report cannot be written.
+   */
+  abstract void end(long files, long failedFiles, long errors, long warnings) throws IOException;
+
+  @Override
+  public void close() throws IOException {
+    this.generator.writeRaw('\n');
+    this.generator.close();
+  }
+
+  /**
+   * Get the name of a severity, e.g. error.
+   *
+   * @param severity The severity.
+   * @return The lower case name.
+   */
+  static String getSeverityName(DiagnosticSeverity severity) {
+    return (severity == null ? DiagnosticSeverity.Error : severity).name().toLowerCase(Locale.ROOT);
+  }
+
+  /** The feedzails report: the files with diagnostics, then a summary. Lines are 1-based. */
+  private static final class JsonReport extends BatchReport {
+    /**
+     * Constructor.
+     *
+     * @param out The output stream.
+     * @throws IOException If the report cannot be written.
+     */
+    JsonReport(OutputStream out) throws IOException {
+      super(out);
+    }
+
+    @Override
+    void begin() throws IOException {
+      this.generator.writeStartObject();
+      this.generator.writeArrayFieldStart("files");
+    }
+
+    @Override
+    void add(String file, List<Diagnostic> diagnostics) throws IOException {
+      this.generator.writeStartObject();
+      this.generator.writeStringField("file", file);
+      this.generator.writeArrayFieldStart("diagnostics");
+
+      for (Diagnostic diagnostic : diagnostics) {
+        this.generator.writeStartObject();
+        this.generator.writeStringField("severity", getSeverityName(diagnostic.getSeverity()));
+        this.generator.writeNumberField("line", diagnostic.getRange().getStart().getLine() + 1);
+        this.generator.writeNumberField(
+            "column", diagnostic.getRange().getStart().getCharacter() + 1);
+        this.generator.writeNumberField("endLine", diagnostic.getRange().getEnd().getLine() + 1);
+        this.generator.writeNumberField(
+            "endColumn", diagnostic.getRange().getEnd().getCharacter() + 1);
+        this.generator.writeStringField("message", diagnostic.getMessage());
+        this.generator.writeEndObject();
+      }
+
+      this.generator.writeEndArray();
+      this.generator.writeEndObject();
+    }
+
+    @Override
+    void end(long files, long failedFiles, long errors, long warnings) throws IOException {
+      this.generator.writeEndArray();
+      this.generator.writeObjectFieldStart("summary");
+      this.generator.writeNumberField("files", files);
+      this.generator.writeNumberField("failedFiles", failedFiles);
+      this.generator.writeNumberField("errors", errors);
+      this.generator.writeNumberField("warnings", warnings);
+      this.generator.writeEndObject();
+      this.generator.writeEndObject();
+    }
+  }
+
+  /** The SARIF 2.1.0 report, one result per diagnostic, for code scanning tools. */
+  private static final class SarifReport extends BatchReport {
+    /**
+     * Constructor.
+     *
+     * @param out The output stream.
+     * @throws IOException If the report cannot be written.
+     */
+    SarifReport(OutputStream out) throws IOException {
+      super(out);
+    }
+
+    @Override
+    void begin() throws IOException {
+      this.generator.writeStartObject();
+      this.generator.writeStringField("$schema", "https://json.schemastore.org/sarif-2.1.0.json");
+      this.generator.writeStringField("version", "2.1.0");
+      this.generator.writeArrayFieldStart("runs");
+      this.generator.writeStartObject();
+      this.generator.writeObjectFieldStart("tool");
+      this.generator.writeObjectFieldStart("driver");
+      this.generator.writeStringField("name", "feedzails");
+      this.generator.writeEndObject();
+      this.generator.writeEndObject();
+      this.generator.writeArrayFieldStart("results");
+    }
+
+    @Override
+    void add(String file, List<Diagnostic> diagnostics) throws IOException {
+      for (Diagnostic diagnostic : diagnostics) {
+        this.generator.writeStartObject();
+        this.generator.writeStringField("level", getLevel(diagnostic.getSeverity()));
+        this.generator.writeObjectFieldStart("message");
+        this.generator.writeStringField("text", diagnostic.getMessage());
+        this.generator.writeEndObject();
+        this.generator.writeArrayFieldStart("locations");
+        this.generator.writeStartObject();
+        this.generator.writeObjectFieldStart("physicalLocation");
+        this.generator.writeObjectFieldStart("artifactLocation");
+        this.generator.writeStringField("uri", file);
+        this.generator.writeEndObject();
+        this.generator.writeObjectFieldStart("region");
+        this.generator.writeNumberField(
+            "startLine", diagnostic.getRange().getStart().getLine() + 1);
+        this.generator.writeNumberField(
+            "startColumn", diagnostic.getRange().getStart().getCharacter() + 1);
+        this.generator.writeNumberField("endLine", diagnostic.getRange().getEnd().getLine() + 1);
+        this.generator.writeNumberField(
+            "endColumn", diagnostic.getRange().getEnd().getCharacter() + 1);
+        this.generator.writeEndObject();
+        this.generator.writeEndObject();
+        this.generator.writeEndObject();
+        this.generator.writeEndArray();
+        this.generator.writeEndObject();
+      }
+    }
+
+    @Override
+    void end(long files, long failedFiles, long errors, long warnings) throws IOException {
+      this.generator.writeEndArray();
+      this.generator.writeEndObject();
+      this.generator.writeEndArray();
+      this.generator.writeEndObject();
+    }
+
+    /**
+     * Get the SARIF level of a severity.
+     *
+     * @param severity The severity.
+     * @return The level: error, warning or note.
+     */
+    private static String getLevel(DiagnosticSeverity severity) {
+      if (severity == null || severity == DiagnosticSeverity.Error) {
+        return "error";
+      }
+
+      return severity == DiagnosticSeverity.Warning ? "warning" : "note";
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.launcher;
+
+import com.feedzai.commons.ls.languageserver.CompletionServiceRegistry;
+import com.feedzai.commons.ls.languageserver.FeedzaiLanguageServer;
+import com.feedzai.commons.ls.languageserver.impl.completion.JsonPatcherService;
+import com.feedzai.commons.ls.languageserver.impl.concurrent.RequestExecutors;
+import com.feedzai.commons.ls.languageserver.impl.maven.MavenService;
+import com.feedzai.commons.ls.languageserver.impl.metrics.MessageMetrics;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import org.eclipse.lsp4j.jsonrpc.Launcher;
+import org.eclipse.lsp4j.launch.LSPLauncher;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Socket Launcher. Serves every client connecting to a local TCP port from one process, so the
+ * clients share the completion indexes while each keeps its own documents. Other local users can
+ * connect to the port too, so a client must first send the shared secret of {@code FEEDZAILS_TOKEN}
+ * on its own line before speaking the protocol.
+ *
+ * @since 0.1.0
+ */
+public final class SocketLauncher {
+  /** The default port. */
+  private static final int DEFAULT_PORT = 5007;
+
+  /** The environment variable holding the shared secret. */
+  private static final String TOKEN_VARIABLE = "FEEDZAILS_TOKEN";
+
+  /** The longest accepted secret line, in bytes. */
+  private static final int MAX_TOKEN_LENGTH = 1024;
+
+  /** The time a client has to send the secret, in milliseconds. */
+  private static final int TOKEN_TIMEOUT = 10_000;
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(SocketLauncher.class);
+
+  /** Constructor. */
+  private SocketLauncher() {}
+
+  /**
+   * Main method.
+   *
+   * @param args The arguments: the port, 5007 by default.
+   * @throws IOException If the port cannot be bound.
+   */
+  public static void main(final String[] args) throws IOException {
+    LogManager.getLogManager().reset();
+    java.util.logging.Logger.getLogger(java.util.logging.Logger.GLOBAL_LOGGER_NAME)
+        .setLevel(Level.OFF);
+
+    final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+    final String token = System.getenv(TOKEN_VARIABLE);
+    if (token == null || token.isBlank()) {
+      LOGGER.error("Set {} to the secret the clients must send before connecting", TOKEN_VARIABLE);
+      System.exit(1);
+    }
+
+    startServer(port, token.strip().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Starts the server, accepting clients until the process is stopped.
+   *
+   * @param port The port.
+   * @param token The shared secret.
+   * @throws IOException If the port cannot be bound.
+   */
+  private static void startServer(final int port, final byte[] token) throws IOException {
+    // the workspaces share the local repository, each resolving its own versions from it.
+    final MavenService mavenService = new MavenService();
+    final CompletionServiceRegistry completionServiceRegistry =
+        new CompletionServiceRegistry(() -> List.of(new JsonPatcherService(mavenService)));
+
+    // the request handlers share a bounded executor, while each connection holds its own thread.
+    final ExecutorService executor = RequestExecutors.create();
+    final AtomicInteger connections = new AtomicInteger();
+    final ExecutorService connectionExecutor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "feedzails-connection-" + connections.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+      LOGGER.info("Listening on {}", serverSocket.getLocalSocketAddress());
+
+      while (!serverSocket.isClosed()) {
+        final Socket socket = serverSocket.accept();
+        connectionExecutor.execute(
+            () -> {
+              if (authenticate(socket, token)) {
+                serve(socket, completionServiceRegistry, executor, connectionExecutor);
+              } else {
+                closeQuietly(socket);
+              }
+            });
+      }
+    }
+  }
+
+  /**
+   * Serve a client until it exits or disconnects.
+   *
+   * @param socket The client socket.
+   * @param completionServiceRegistry The completion service registry, shared by the clients.
+   * @param executor The request executor, shared by the clients.
+   * @param connectionExecutor The executor running the connection message loops.
+   */
+  private static void serve(
+      final Socket socket,
+      final CompletionServiceRegistry completionServiceRegistry,
+      final ExecutorService executor,
+      final ExecutorService connectionExecutor) {
+    LOGGER.info("Client connected from {}", socket.getRemoteSocketAddress());
+
+    // exiting ends the connection of the client only.
+    final FeedzaiLanguageServer feedzaiLanguageServer =
+        new FeedzaiLanguageServer(
+            completionServiceRegistry, executor, exitCode -> closeQuietly(socket));
+
+    try {
+      final Launcher<LanguageClient> launcher =
+          LSPLauncher.createServerLauncher(
+              feedzaiLanguageServer,
+              socket.getInputStream(),
+              socket.getOutputStream(),
+              connectionExecutor,
+              new MessageMetrics(Metrics.get()));
+
+      feedzaiLanguageServer.connect(launcher.getRemoteProxy());
+
+      final Future<Void> listening = launcher.startListening();
+      listening.get();
+    } catch (IOException | ExecutionException e) {
+      LOGGER.warn("Client connection failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      feedzaiLanguageServer.dispose();
+      closeQuietly(socket);
+      LOGGER.info("Client disconnected from {}", socket.getRemoteSocketAddress());
+    }
+  }
+
+  /**
+   * Check that a client sends the shared secret on its first line, before the protocol starts.
+   *
+   * @param socket The client socket.
+   * @param token The shared secret.
+   * @return Whether the client sent the secret.
+   */
+  private static boolean authenticate(final Socket socket, final byte[] token) {
+    try {
+      socket.setSoTimeout(TOKEN_TIMEOUT);
+
+      // read byte by byte, so the protocol messages after the line stay in the stream.
+      final InputStream inputStream = socket.getInputStream();
+      final ByteArrayOutputStream line = new ByteArrayOutputStream();
+      int read = inputStream.read();
+      while (read != -1 && read != '\n' && line.size() <= MAX_TOKEN_LENGTH) {
+        line.write(read);
+        read = inputStream.read();
+      }
+
+      socket.setSoTimeout(0);
+
+      final byte[] received =
+          new String(line.toByteArray(), StandardCharsets.UTF_8)
+              .strip()
+              .getBytes(StandardCharsets.UTF_8);
+      if (read == '\n' && MessageDigest.isEqual(received, token)) {
+        return true;
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Error reading the client secret", e);
+    }
+
+    LOGGER.warn("Rejected client from {}: wrong secret", socket.getRemoteSocketAddress());
+    return false;
+  }
+
+  /**
+   * Close a client socket, ignoring errors.
+   *
+   * @param socket The client socket.
+   */
+  private static void closeQuietly(final Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      LOGGER.debug("Error closing client socket", e);
+    }
+  }
+}
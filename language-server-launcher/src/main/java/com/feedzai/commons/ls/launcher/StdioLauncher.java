@@ -11,10 +11,14 @@ package com.feedzai.commons.ls.launcher;
 import com.feedzai.commons.ls.languageserver.FeedzaiLanguageServer;
 import com.feedzai.commons.ls.languageserver.api.CompletionService;
 import com.feedzai.commons.ls.languageserver.impl.completion.JsonPatcherService;
+import com.feedzai.commons.ls.languageserver.impl.concurrent.RequestExecutors;
+import com.feedzai.commons.ls.languageserver.impl.metrics.MessageMetrics;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -58,11 +62,15 @@ public final class StdioLauncher {
       throws ExecutionException, InterruptedException {
     final List<CompletionService> completionServices = List.of(new JsonPatcherService());
 
+    // the message loop and the request handlers share the executor, off the common pool.
+    final ExecutorService executor = RequestExecutors.create();
+
     final FeedzaiLanguageServer feedzaiLanguageServer =
-        new FeedzaiLanguageServer(completionServices);
+        new FeedzaiLanguageServer(completionServices, executor);
 
     final Launcher<LanguageClient> launcher =
-        LSPLauncher.createServerLauncher(feedzaiLanguageServer, in, out);
+        LSPLauncher.createServerLauncher(
+            feedzaiLanguageServer, in, out, executor, new MessageMetrics(Metrics.get()));
 
     feedzaiLanguageServer.connect(launcher.getRemoteProxy());
 
@@ -0,0 +1,242 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.launcher;
+
+import com.feedzai.commons.ls.languageserver.CompletionServiceRegistry;
+import com.feedzai.commons.ls.languageserver.FeedzaiLanguageServer;
+import com.feedzai.commons.ls.languageserver.impl.completion.JsonPatcherService;
+import com.feedzai.commons.ls.languageserver.impl.concurrent.RequestExecutors;
+import com.feedzai.commons.ls.languageserver.impl.metrics.MessageMetrics;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import org.eclipse.lsp4j.ClientCapabilities;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.MessageActionItem;
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.eclipse.lsp4j.jsonrpc.Launcher;
+import org.eclipse.lsp4j.launch.LSPLauncher;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Training Launcher. Runs a short editor session against an in-process server, so a JVM started
+ * with {@code -XX:ArchiveClassesAtExit} records the classes a real session loads into a class data
+ * sharing archive.
+ *
+ * @since 0.1.0
+ */
+public final class TrainingLauncher {
+  /** How long to wait for the session, in seconds. */
+  private static final long TIMEOUT_SECONDS = 120;
+
+  /** The document edited during the session. */
+  private static final String DOCUMENT =
+      "[\n  {\n    \"op\": \"add\",\n    \"path\": \"/a\",\n    \"value\": 1\n  },\n  \n]\n";
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(TrainingLauncher.class);
+
+  /** Constructor. */
+  private TrainingLauncher() {}
+
+  /**
+   * Main method.
+   *
+   * @param args The arguments, ignored.
+   * @throws Exception If the session fails.
+   */
+  public static void main(final String[] args) throws Exception {
+    LogManager.getLogManager().reset();
+    java.util.logging.Logger.getLogger(java.util.logging.Logger.GLOBAL_LOGGER_NAME)
+        .setLevel(Level.OFF);
+
+    final Path workspace = Files.createTempDirectory("feedzails-training");
+    final ExecutorService executor = RequestExecutors.create();
+
+    try {
+      train(workspace, executor);
+    } finally {
+      executor.shutdownNow();
+      Files.deleteIfExists(workspace);
+    }
+
+    // the archive is written when the JVM exits, with the request threads still parked.
+    System.exit(0);
+  }
+
+  /**
+   * Connect a client to an in-process server and run the session.
+   *
+   * @param workspace The workspace folder.
+   * @param executor The request executor.
+   * @throws IOException If the client cannot connect.
+   * @throws ExecutionException If a request fails.
+   * @throws InterruptedException If interrupted.
+   * @throws TimeoutException If the session takes too long.
+   */
+  private static void train(final Path workspace, final ExecutorService executor)
+      throws IOException, ExecutionException, InterruptedException, TimeoutException {
+    final long start = System.nanoTime();
+
+    final CompletionServiceRegistry completionServiceRegistry =
+        new CompletionServiceRegistry(List.of(new JsonPatcherService()));
+    final FeedzaiLanguageServer feedzaiLanguageServer =
+        new FeedzaiLanguageServer(completionServiceRegistry, executor, exitCode -> {});
+
+    // a loopback socket rather than pipes, which break once the virtual thread writing them ends.
+    try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket clientSocket =
+            new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        Socket socket = serverSocket.accept()) {
+      final Launcher<LanguageClient> serverLauncher =
+          LSPLauncher.createServerLauncher(
+              feedzaiLanguageServer,
+              socket.getInputStream(),
+              socket.getOutputStream(),
+              executor,
+              new MessageMetrics(Metrics.get()));
+      feedzaiLanguageServer.connect(serverLauncher.getRemoteProxy());
+      serverLauncher.startListening();
+
+      final Launcher<LanguageServer> clientLauncher =
+          LSPLauncher.createClientLauncher(
+              new TrainingClient(), clientSocket.getInputStream(), clientSocket.getOutputStream());
+      clientLauncher.startListening();
+
+      session(workspace, completionServiceRegistry, clientLauncher.getRemoteProxy());
+    } finally {
+      feedzaiLanguageServer.dispose();
+    }
+
+    LOGGER.info("Trained in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Run the session: initialize, wait for indexing, then open a document, complete and resolve in
+   * it.
+   *
+   * @param workspace The workspace folder.
+   * @param completionServiceRegistry The completion service registry of the server.
+   * @param server The server.
+   * @throws ExecutionException If a request fails.
+   * @throws InterruptedException If interrupted.
+   * @throws TimeoutException If the session takes too long.
+   */
+  private static void session(
+      final Path workspace,
+      final CompletionServiceRegistry completionServiceRegistry,
+      final LanguageServer server)
+      throws ExecutionException, InterruptedException, TimeoutException {
+    final InitializeParams initializeParams = new InitializeParams();
+    initializeParams.setWorkspaceFolders(
+        List.of(
+            new WorkspaceFolder(
+                workspace.toUri().toString(), String.valueOf(workspace.getFileName()))));
+    initializeParams.setCapabilities(new ClientCapabilities());
+    await(server.initialize(initializeParams));
+    server.initialized(new InitializedParams());
+
+    // the server opened the same folder, so this is its workspace.
+    final CompletionServiceRegistry.Workspace opened =
+        completionServiceRegistry.open(List.of(workspace));
+    try {
+      CompletableFuture.allOf(opened.index().values().toArray(new CompletableFuture<?>[0]))
+          .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } finally {
+      completionServiceRegistry.close(opened);
+    }
+
+    final String uri = workspace.resolve("training.json").toUri().toString();
+    server
+        .getTextDocumentService()
+        .didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uri, "json", 1, DOCUMENT)));
+
+    final List<CompletionItem> items =
+        await(
+                server
+                    .getTextDocumentService()
+                    .completion(
+                        new CompletionParams(new TextDocumentIdentifier(uri), new Position(6, 2))))
+            .map(list -> list, completionList -> completionList.getItems());
+
+    for (final CompletionItem item : items) {
+      await(server.getTextDocumentService().resolveCompletionItem(item));
+    }
+
+    server
+        .getTextDocumentService()
+        .didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uri)));
+    await(server.shutdown());
+    server.exit();
+
+    LOGGER.info("Completed and resolved {} items", items.size());
+  }
+
+  /**
+   * Wait for a request of the session.
+   *
+   * @param request The request.
+   * @param <T> The result type.
+   * @return The result.
+   * @throws ExecutionException If the request fails.
+   * @throws InterruptedException If interrupted.
+   * @throws TimeoutException If the request takes too long.
+   */
+  private static <T> T await(final CompletableFuture<T> request)
+      throws ExecutionException, InterruptedException, TimeoutException {
+    return request.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /** A client ignoring everything the server sends. */
+  private static final class TrainingClient implements LanguageClient {
+    @Override
+    public void telemetryEvent(final Object object) {}
+
+    @Override
+    public void publishDiagnostics(final PublishDiagnosticsParams diagnostics) {}
+
+    @Override
+    public void showMessage(final MessageParams messageParams) {}
+
+    @Override
+    public CompletableFuture<MessageActionItem> showMessageRequest(
+        final ShowMessageRequestParams requestParams) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void logMessage(final MessageParams message) {}
+  }
+}
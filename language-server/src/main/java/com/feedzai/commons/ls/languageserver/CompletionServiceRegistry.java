@@ -0,0 +1,351 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver;
+
+import com.feedzai.commons.ls.languageserver.api.CompletionService;
+import com.feedzai.commons.ls.languageserver.impl.symbols.WorkspaceSymbolIndex;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Completion Service Registry. Indexes the completion services in the background, once for all
+ * the clients of the process that open the same workspace folders. Clients with other folders get
+ * their own completion services, so each resolves the versions its own project pins.
+ *
+ * @since 0.1.0
+ */
+public final class CompletionServiceRegistry {
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(CompletionServiceRegistry.class);
+
+  /** Creates the completion services of a new workspace. */
+  private final Supplier<List<CompletionService>> completionServicesFactory;
+
+  /**
+   * The completion services created up front for their file extensions, for the first workspace.
+   */
+  private List<CompletionService> firstCompletionServices;
+
+  /** The indexing executor, running the completion services concurrently. */
+  private final ExecutorService executor;
+
+  /** The open workspaces, by workspace folders. */
+  private final Map<Set<Path>, Workspace> workspaces = new HashMap<>();
+
+  /** The reloads that did not start yet, by completion service. */
+  private final Map<CompletionService, CompletableFuture<Void>> queuedReloads = new HashMap<>();
+
+  /** The listeners run after every reload, one per connected client. */
+  private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+  /** The workspace folders crawled for workspace symbols. */
+  private final Set<Path> crawledFolders = new HashSet<>();
+
+  /** The workspace symbol index, over the files of every workspace folder. */
+  @Getter private final WorkspaceSymbolIndex workspaceSymbolIndex;
+
+  /**
+   * Constructor, for a single client: every workspace uses the given completion services.
+   *
+   * @param completionServices The completion services.
+   */
+  public CompletionServiceRegistry(List<CompletionService> completionServices) {
+    this(() -> completionServices);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param completionServicesFactory Creates the completion services of a new workspace.
+   */
+  public CompletionServiceRegistry(Supplier<List<CompletionService>> completionServicesFactory) {
+    this.completionServicesFactory = completionServicesFactory;
+    this.firstCompletionServices = completionServicesFactory.get();
+    this.workspaceSymbolIndex =
+        new WorkspaceSymbolIndex(byExtension(this.firstCompletionServices).keySet());
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(
+                1,
+                Math.min(
+                    this.firstCompletionServices.size(),
+                    Runtime.getRuntime().availableProcessors())),
+            runnable -> {
+              final Thread thread = new Thread(runnable, "feedzails-registry");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Open the workspace of a client. Clients opening the same folders share the workspace and its
+   * indexes, while new folders get new completion services that resolve their versions from those
+   * folders only. The folders not seen before are crawled for workspace symbols in the background.
+   *
+   * @param folders The workspace folders of the client.
+   * @return The workspace, to be closed once the client is gone.
+   */
+  public synchronized Workspace open(List<Path> folders) {
+    final Set<Path> key = Collections.unmodifiableSet(new LinkedHashSet<>(folders));
+
+    Workspace workspace = this.workspaces.get(key);
+    if (workspace == null) {
+      final List<CompletionService> completionServices;
+      if (this.firstCompletionServices != null) {
+        completionServices = this.firstCompletionServices;
+        this.firstCompletionServices = null;
+      } else {
+        completionServices = this.completionServicesFactory.get();
+      }
+
+      workspace = new Workspace(key, completionServices);
+      this.workspaces.put(key, workspace);
+
+      final List<Path> added =
+          key.stream().filter(this.crawledFolders::add).collect(Collectors.toList());
+      if (!added.isEmpty()) {
+        this.workspaceSymbolIndex.crawl(added);
+      }
+    }
+
+    workspace.clients++;
+    return workspace;
+  }
+
+  /**
+   * Close the workspace of a client, dropping its completion services once no client uses it.
+   *
+   * @param workspace The workspace.
+   */
+  public synchronized void close(Workspace workspace) {
+    workspace.clients--;
+    if (workspace.clients == 0) {
+      this.workspaces.remove(workspace.key, workspace);
+    }
+  }
+
+  /**
+   * Add a listener run after every reload.
+   *
+   * @param listener The listener.
+   */
+  public void addReloadListener(Runnable listener) {
+    this.reloadListeners.add(listener);
+  }
+
+  /**
+   * Remove a listener run after every reload.
+   *
+   * @param listener The listener.
+   */
+  public void removeReloadListener(Runnable listener) {
+    this.reloadListeners.remove(listener);
+  }
+
+  /**
+   * Get the completion services of the open workspaces whose watched files include a path.
+   *
+   * @param path The changed path.
+   * @return The affected completion services.
+   */
+  public synchronized List<CompletionService> getAffectedServices(Path path) {
+    final List<CompletionService> affected = new ArrayList<>();
+
+    for (Workspace workspace : this.workspaces.values()) {
+      for (CompletionService completionService : workspace.completionServices) {
+        for (String pattern : completionService.getWatchedFiles()) {
+          if (FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(path)) {
+            affected.add(completionService);
+            break;
+          }
+        }
+      }
+    }
+
+    return affected;
+  }
+
+  /**
+   * Reload a completion service in the background. A burst of changes causes a single reload, as
+   * the reloads requested before the queued one starts share it.
+   *
+   * @param completionService The completion service.
+   * @return The reload task.
+   */
+  public synchronized CompletableFuture<Void> reload(CompletionService completionService) {
+    final CompletableFuture<Void> queued = this.queuedReloads.get(completionService);
+    if (queued != null) {
+      return queued;
+    }
+
+    final CompletableFuture<Void> reload = new CompletableFuture<>();
+    this.queuedReloads.put(completionService, reload);
+
+    this.executor.execute(
+        () -> {
+          synchronized (this) {
+            this.queuedReloads.remove(completionService, reload);
+          }
+
+          try {
+            completionService.reload();
+            this.reloadListeners.forEach(Runnable::run);
+            reload.complete(null);
+          } catch (RuntimeException e) {
+            this.logger.error("Error reloading {}", completionService.getName(), e);
+            reload.completeExceptionally(e);
+          }
+        });
+
+    return reload;
+  }
+
+  /**
+   * Group the completion services by associated file extension.
+   *
+   * @param completionServices The completion services.
+   * @return The completion services, by extension.
+   */
+  private static Map<String, List<CompletionService>> byExtension(
+      List<CompletionService> completionServices) {
+    final Map<String, List<CompletionService>> byExtension = new HashMap<>();
+
+    completionServices.forEach(
+        completionService ->
+            completionService
+                .getAssociatedFileExtensions()
+                .forEach(
+                    extension ->
+                        byExtension
+                            .computeIfAbsent(extension, key -> new ArrayList<>())
+                            .add(completionService)));
+
+    final Map<String, List<CompletionService>> immutable = new HashMap<>();
+    byExtension.forEach((extension, services) -> immutable.put(extension, List.copyOf(services)));
+
+    return Map.copyOf(immutable);
+  }
+
+  /**
+   * The Workspace of the clients opening the same folders: the completion services resolving their
+   * versions from those folders, indexed once for all of them.
+   */
+  public final class Workspace {
+    /** The workspace folders, as a set. */
+    private final Set<Path> key;
+
+    /** The workspace folders. */
+    @Getter private final List<Path> folders;
+
+    /** The completion services. */
+    @Getter private final List<CompletionService> completionServices;
+
+    /** The completion services, by associated file extension. */
+    private final Map<String, List<CompletionService>> completionServicesByExtension;
+
+    /** The indexing tasks, one per completion service. */
+    private Map<CompletionService, CompletableFuture<Void>> indexing;
+
+    /** The number of clients using the workspace, guarded by the registry. */
+    private int clients;
+
+    /**
+     * Constructor.
+     *
+     * @param key The workspace folders, as a set.
+     * @param completionServices The completion services.
+     */
+    private Workspace(Set<Path> key, List<CompletionService> completionServices) {
+      this.key = key;
+      this.folders = List.copyOf(key);
+      this.completionServices = completionServices;
+      this.completionServicesByExtension = byExtension(completionServices);
+
+      completionServices.forEach(
+          completionService -> completionService.setWorkspaceFolders(this.folders));
+    }
+
+    /**
+     * Get a completion service by name.
+     *
+     * @param name The service name.
+     * @return The completion service, or empty if no service has the name.
+     */
+    public Optional<CompletionService> getCompletionService(String name) {
+      return this.completionServices.stream()
+          .filter(completionService -> completionService.getName().equals(name))
+          .findFirst();
+    }
+
+    /**
+     * Get the completion services associated with a document.
+     *
+     * @param uri The document URI.
+     * @return The completion services associated with the document extension.
+     */
+    public List<CompletionService> getCompletionServices(String uri) {
+      final int slash = uri.lastIndexOf('/');
+      final int dot = uri.lastIndexOf('.');
+
+      if (dot <= slash) {
+        return List.of();
+      }
+
+      return this.completionServicesByExtension.getOrDefault(uri.substring(dot + 1), List.of());
+    }
+
+    /**
+     * Start indexing the completion services, if not started yet.
+     *
+     * @return The indexing tasks, one per completion service.
+     */
+    public synchronized Map<CompletionService, CompletableFuture<Void>> index() {
+      if (this.indexing == null) {
+        final Map<CompletionService, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+
+        this.completionServices.forEach(
+            completionService ->
+                tasks.put(
+                    completionService,
+                    CompletableFuture.runAsync(
+                            completionService::index, CompletionServiceRegistry.this.executor)
+                        .whenComplete(
+                            (result, throwable) -> {
+                              if (throwable != null) {
+                                CompletionServiceRegistry.this.logger.error(
+                                    "Error indexing {}", completionService.getName(), throwable);
+                              }
+                            })));
+
+        this.indexing = Collections.unmodifiableMap(tasks);
+      }
+
+      return this.indexing;
+    }
+  }
+}
@@ -9,15 +9,45 @@
 package com.feedzai.commons.ls.languageserver;
 
 import com.feedzai.commons.ls.languageserver.api.CompletionService;
+import com.feedzai.commons.ls.languageserver.impl.concurrent.RequestExecutors;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 import org.eclipse.lsp4j.CompletionOptions;
+import org.eclipse.lsp4j.DidChangeWatchedFilesRegistrationOptions;
+import org.eclipse.lsp4j.DocumentOnTypeFormattingOptions;
+import org.eclipse.lsp4j.FileSystemWatcher;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.Registration;
+import org.eclipse.lsp4j.RegistrationParams;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentClientCapabilities;
 import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.WindowClientCapabilities;
+import org.eclipse.lsp4j.WorkDoneProgressBegin;
+import org.eclipse.lsp4j.WorkDoneProgressCreateParams;
+import org.eclipse.lsp4j.WorkDoneProgressEnd;
+import org.eclipse.lsp4j.WorkDoneProgressReport;
+import org.eclipse.lsp4j.WorkspaceClientCapabilities;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.LanguageClientAware;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The Feedzai Language Server.
@@ -26,11 +56,44 @@ import org.eclipse.lsp4j.services.LanguageClientAware;
  */
 public final class FeedzaiLanguageServer
     implements org.eclipse.lsp4j.services.LanguageServer, LanguageClientAware {
+  /** The indexing progress token. */
+  private static final String INDEXING_TOKEN = "feedzails/indexing";
+
+  /** The system property naming the file the metrics are written to on shutdown. */
+  private static final String METRICS_FILE_PROPERTY = "feedzails.metrics.file";
+
+  /** The id of the watched files registration. */
+  private static final String WATCHED_FILES_REGISTRATION = "feedzails/watchedFiles";
+
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(FeedzaiLanguageServer.class);
+
+  /** The completion service registry. */
+  private final CompletionServiceRegistry completionServiceRegistry;
+
   /** The text document service. */
-  private final org.eclipse.lsp4j.services.TextDocumentService textDocumentService;
+  private final FeedzaiTextDocumentService textDocumentService;
 
   /** The workspace service. */
-  private final org.eclipse.lsp4j.services.WorkspaceService workspaceService;
+  private final FeedzaiWorkspaceService workspaceService;
+
+  /** The workspace of this client, once initialized. */
+  private CompletionServiceRegistry.Workspace workspace;
+
+  /** Revalidates the open documents of this client after a reload. */
+  private final Runnable reloadListener;
+
+  /** Ends the session with an exit code: the process, or only the connection of the client. */
+  private final IntConsumer exit;
+
+  /** The language client. */
+  private LanguageClient languageClient;
+
+  /** Whether the client supports work done progress. */
+  private boolean workDoneProgress;
+
+  /** Whether the client supports registering file watchers. */
+  private boolean watchedFilesRegistration;
 
   /** The error code. */
   private int errorCode = 1;
@@ -41,30 +104,283 @@ public final class FeedzaiLanguageServer
    * @param completionServices The completion services.
    */
   public FeedzaiLanguageServer(List<CompletionService> completionServices) {
-    this.textDocumentService = new FeedzaiTextDocumentService(completionServices);
-    this.workspaceService = new FeedzaiWorkspaceService();
+    this(completionServices, RequestExecutors.create());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param completionServices The completion services.
+   * @param executor The executor running the request handlers.
+   */
+  public FeedzaiLanguageServer(List<CompletionService> completionServices, Executor executor) {
+    this(new CompletionServiceRegistry(completionServices), executor);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param completionServiceRegistry The completion service registry.
+   * @param executor The executor running the request handlers.
+   */
+  public FeedzaiLanguageServer(
+      CompletionServiceRegistry completionServiceRegistry, Executor executor) {
+    this(completionServiceRegistry, executor, System::exit);
+  }
+
+  /**
+   * Constructor. Servers sharing a registry share the indexes of the workspace folders they have in
+   * common, and keep their own documents.
+   *
+   * @param completionServiceRegistry The completion service registry.
+   * @param executor The executor running the request handlers.
+   * @param exit Ends the session with an exit code.
+   */
+  public FeedzaiLanguageServer(
+      CompletionServiceRegistry completionServiceRegistry, Executor executor, IntConsumer exit) {
+    this.completionServiceRegistry = completionServiceRegistry;
+    this.textDocumentService = new FeedzaiTextDocumentService(executor);
+    this.workspaceService = new FeedzaiWorkspaceService(completionServiceRegistry);
+    this.exit = exit;
+    this.reloadListener = this.textDocumentService::validateAll;
+    this.completionServiceRegistry.addReloadListener(this.reloadListener);
   }
 
   @Override
   public CompletableFuture<InitializeResult> initialize(final InitializeParams initializeParams) {
     final InitializeResult initializeResult = new InitializeResult(new ServerCapabilities());
 
-    initializeResult.getCapabilities().setTextDocumentSync(TextDocumentSyncKind.Full);
-    initializeResult.getCapabilities().setCompletionProvider(new CompletionOptions());
+    initializeResult.getCapabilities().setTextDocumentSync(TextDocumentSyncKind.Incremental);
+    initializeResult.getCapabilities().setCompletionProvider(new CompletionOptions(true, null));
+    initializeResult.getCapabilities().setWorkspaceSymbolProvider(true);
+    initializeResult.getCapabilities().setDocumentSymbolProvider(true);
+    initializeResult.getCapabilities().setHoverProvider(true);
+    initializeResult.getCapabilities().setDocumentFormattingProvider(true);
+    initializeResult.getCapabilities().setDocumentRangeFormattingProvider(true);
+    initializeResult
+        .getCapabilities()
+        .setDocumentOnTypeFormattingProvider(
+            new DocumentOnTypeFormattingOptions("}", List.of("]")));
+
+    final WindowClientCapabilities window =
+        initializeParams.getCapabilities() == null
+            ? null
+            : initializeParams.getCapabilities().getWindow();
+    this.workDoneProgress = window != null && Boolean.TRUE.equals(window.getWorkDoneProgress());
+
+    final WorkspaceClientCapabilities workspace =
+        initializeParams.getCapabilities() == null
+            ? null
+            : initializeParams.getCapabilities().getWorkspace();
+    this.watchedFilesRegistration =
+        workspace != null
+            && workspace.getDidChangeWatchedFiles() != null
+            && Boolean.TRUE.equals(workspace.getDidChangeWatchedFiles().getDynamicRegistration());
+
+    this.textDocumentService.setCompletionResolveSupport(
+        getCompletionResolveSupport(initializeParams));
+    this.workspace = this.completionServiceRegistry.open(getWorkspaceFolders(initializeParams));
+    this.textDocumentService.setWorkspace(this.workspace);
+    this.workspaceService.setWorkspaceFolders(this.workspace.getFolders());
+
+    // indexing runs in the background, completions are served as each service becomes ready.
+    this.workspace
+        .index()
+        .values()
+        .forEach(task -> task.thenRun(this.textDocumentService::validateAll));
+
+    return CompletableFuture.completedFuture(initializeResult);
+  }
+
+  /**
+   * Get the completion item properties the client can resolve lazily.
+   *
+   * @param initializeParams The initialize parameters.
+   * @return The properties, empty if the client did not declare any.
+   */
+  private static List<String> getCompletionResolveSupport(InitializeParams initializeParams) {
+    final TextDocumentClientCapabilities textDocument =
+        initializeParams.getCapabilities() == null
+            ? null
+            : initializeParams.getCapabilities().getTextDocument();
+
+    if (textDocument == null
+        || textDocument.getCompletion() == null
+        || textDocument.getCompletion().getCompletionItem() == null
+        || textDocument.getCompletion().getCompletionItem().getResolveSupport() == null
+        || textDocument.getCompletion().getCompletionItem().getResolveSupport().getProperties()
+            == null) {
+      return List.of();
+    }
+
+    return textDocument.getCompletion().getCompletionItem().getResolveSupport().getProperties();
+  }
+
+  /**
+   * Get the workspace folders opened by the client.
+   *
+   * @param initializeParams The initialize parameters.
+   * @return The workspace folder paths.
+   */
+  @SuppressWarnings("deprecation")
+  private List<Path> getWorkspaceFolders(InitializeParams initializeParams) {
+    final List<String> uris = new ArrayList<>();
+
+    if (initializeParams.getWorkspaceFolders() != null
+        && !initializeParams.getWorkspaceFolders().isEmpty()) {
+      initializeParams.getWorkspaceFolders().forEach(folder -> uris.add(folder.getUri()));
+    } else if (initializeParams.getRootUri() != null) {
+      // the root URI is deprecated, but clients without workspace folder support only send it.
+      uris.add(initializeParams.getRootUri());
+    }
 
-    return CompletableFuture.supplyAsync(() -> initializeResult);
+    final List<Path> workspaceFolders = new ArrayList<>();
+    for (String uri : uris) {
+      try {
+        workspaceFolders.add(Path.of(URI.create(uri)));
+      } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+        this.logger.warn("Ignoring workspace folder: {}", uri);
+      }
+    }
+
+    return workspaceFolders;
+  }
+
+  @Override
+  public void initialized(final InitializedParams initializedParams) {
+    if (this.workspace == null) {
+      return;
+    }
+
+    if (this.workDoneProgress && this.languageClient != null) {
+      this.reportIndexingProgress(this.workspace.index());
+    }
+
+    if (this.watchedFilesRegistration && this.languageClient != null) {
+      this.registerFileWatchers();
+    }
+  }
+
+  /**
+   * Ask the client to watch the files the completion services are indexed from, and the patch files
+   * of the workspace symbol index.
+   */
+  private void registerFileWatchers() {
+    final List<FileSystemWatcher> watchers = new ArrayList<>();
+
+    this.workspace
+        .getCompletionServices()
+        .forEach(
+            completionService ->
+                completionService
+                    .getWatchedFiles()
+                    .forEach(
+                        pattern -> watchers.add(new FileSystemWatcher(Either.forLeft(pattern)))));
+
+    this.completionServiceRegistry
+        .getWorkspaceSymbolIndex()
+        .getWatchedFiles()
+        .forEach(pattern -> watchers.add(new FileSystemWatcher(Either.forLeft(pattern))));
+
+    if (watchers.isEmpty()) {
+      return;
+    }
+
+    this.languageClient
+        .registerCapability(
+            new RegistrationParams(
+                List.of(
+                    new Registration(
+                        WATCHED_FILES_REGISTRATION,
+                        "workspace/didChangeWatchedFiles",
+                        new DidChangeWatchedFilesRegistrationOptions(watchers)))))
+        .exceptionally(
+            throwable -> {
+              this.logger.warn("Could not register the file watchers", throwable);
+              return null;
+            });
+  }
+
+  /**
+   * Report the indexing progress to the client.
+   *
+   * @param indexing The indexing tasks.
+   */
+  private void reportIndexingProgress(Map<CompletionService, CompletableFuture<Void>> indexing) {
+    final Either<String, Integer> token = Either.forLeft(INDEXING_TOKEN);
+    final int total = indexing.size();
+    final AtomicInteger indexed = new AtomicInteger();
+
+    this.languageClient
+        .createProgress(new WorkDoneProgressCreateParams(token))
+        .thenRun(
+            () -> {
+              final WorkDoneProgressBegin begin = new WorkDoneProgressBegin();
+              begin.setTitle("Indexing");
+              begin.setPercentage(0);
+              this.languageClient.notifyProgress(new ProgressParams(token, Either.forLeft(begin)));
+
+              indexing.forEach(
+                  (completionService, task) ->
+                      task.handle(
+                          (result, throwable) -> {
+                            final WorkDoneProgressReport report = new WorkDoneProgressReport();
+                            report.setMessage(completionService.getName());
+                            report.setPercentage(100 * indexed.incrementAndGet() / total);
+                            this.languageClient.notifyProgress(
+                                new ProgressParams(token, Either.forLeft(report)));
+                            return null;
+                          }));
+
+              CompletableFuture.allOf(indexing.values().toArray(new CompletableFuture<?>[0]))
+                  .handle(
+                      (result, throwable) -> {
+                        this.languageClient.notifyProgress(
+                            new ProgressParams(token, Either.forLeft(new WorkDoneProgressEnd())));
+                        return null;
+                      });
+            });
+  }
+
+  /**
+   * Get the server metrics: the latency of every LSP method and indexing phase, and the number of
+   * items of every completion service.
+   *
+   * @return The metrics.
+   */
+  @JsonRequest("feedzai/metrics")
+  public CompletableFuture<Map<String, Object>> metrics() {
+    return CompletableFuture.completedFuture(Metrics.get().toMap());
   }
 
   @Override
   public CompletableFuture<Object> shutdown() {
     errorCode = 0;
 
-    return null;
+    final String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
+    if (metricsFile != null) {
+      try {
+        Metrics.get().dump(Path.of(metricsFile));
+      } catch (IOException | InvalidPathException e) {
+        this.logger.warn("Could not write the metrics to {}", metricsFile, e);
+      }
+    }
+
+    return CompletableFuture.completedFuture(null);
   }
 
   @Override
   public void exit() {
-    System.exit(errorCode);
+    this.exit.accept(errorCode);
+  }
+
+  /** Release the resources of this client, once its connection is closed. */
+  public void dispose() {
+    this.completionServiceRegistry.removeReloadListener(this.reloadListener);
+    this.textDocumentService.dispose();
+    if (this.workspace != null) {
+      this.completionServiceRegistry.close(this.workspace);
+    }
   }
 
   @Override
@@ -78,5 +394,8 @@ public final class FeedzaiLanguageServer
   }
 
   @Override
-  public void connect(final LanguageClient languageClient) {}
+  public void connect(final LanguageClient languageClient) {
+    this.languageClient = languageClient;
+    this.textDocumentService.connect(languageClient);
+  }
 }
@@ -9,9 +9,24 @@
 package com.feedzai.commons.ls.languageserver;
 
 import com.feedzai.commons.ls.languageserver.api.CompletionService;
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
+import com.feedzai.commons.ls.languageserver.impl.completion.CompletionIndex;
+import com.feedzai.commons.ls.languageserver.impl.completion.SchemaCompletionProvider;
+import com.feedzai.commons.ls.languageserver.impl.completion.SchemaHoverProvider;
+import com.feedzai.commons.ls.languageserver.impl.diagnostics.DiagnosticsScheduler;
+import com.feedzai.commons.ls.languageserver.impl.document.DocumentStore;
+import com.feedzai.commons.ls.languageserver.impl.document.Rope;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.format.JsonFormatter;
+import com.feedzai.commons.ls.languageserver.impl.symbols.DocumentSymbolProvider;
+import com.google.gson.JsonPrimitive;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.CodeLens;
@@ -36,6 +51,9 @@ import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.LocationLink;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.RenameParams;
 import org.eclipse.lsp4j.SignatureHelp;
@@ -43,7 +61,10 @@ import org.eclipse.lsp4j.SignatureHelpParams;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.eclipse.lsp4j.services.LanguageClientAware;
 
 /**
  * The Feedzai Text Document Service.
@@ -51,50 +72,342 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
  * @since 0.1.0
  */
 public final class FeedzaiTextDocumentService
-    implements org.eclipse.lsp4j.services.TextDocumentService {
-  /** The JSON patcher service. */
-  final List<CompletionService> completionServices;
+    implements org.eclipse.lsp4j.services.TextDocumentService, LanguageClientAware {
+  /** The maximum number of completion items per response. */
+  private static final int MAX_COMPLETION_ITEMS = 100;
+
+  /** Separates the service name from the label in the data of a listed completion item. */
+  private static final char DATA_SEPARATOR = ':';
+
+  /** The workspace of the client, once initialized. */
+  private volatile CompletionServiceRegistry.Workspace workspace;
+
+  /** The open documents. */
+  private final DocumentStore documentStore = new DocumentStore();
+
+  /** The diagnostics scheduler. */
+  private final DiagnosticsScheduler diagnosticsScheduler;
+
+  /** The document symbol provider. */
+  private final DocumentSymbolProvider documentSymbolProvider = new DocumentSymbolProvider();
+
+  /** The executor running the request handlers. */
+  private final Executor executor;
+
+  /** Whether the client resolves the insert text of completion items lazily. */
+  private volatile boolean lazyInsertText;
+
+  /** The completion indexes, by completion service. */
+  private final Map<CompletionService, CompletionIndex> completionIndexes =
+      new ConcurrentHashMap<>();
 
   /**
    * Constructor.
    *
-   * @param completionServices The completion services.
+   * @param executor The executor running the request handlers.
+   */
+  public FeedzaiTextDocumentService(Executor executor) {
+    this.executor = executor;
+    this.diagnosticsScheduler =
+        new DiagnosticsScheduler(this.documentStore, this::getSchemaServices);
+  }
+
+  @Override
+  public void connect(final LanguageClient languageClient) {
+    this.diagnosticsScheduler.setLanguageClient(languageClient);
+  }
+
+  /**
+   * Set the workspace of the client, whose completion services serve its documents.
+   *
+   * @param workspace The workspace.
+   */
+  public void setWorkspace(CompletionServiceRegistry.Workspace workspace) {
+    this.workspace = workspace;
+  }
+
+  /**
+   * Get the completion services of a document, none before the workspace is set.
+   *
+   * @param uri The document URI.
+   * @return The completion services associated with the document extension.
    */
-  public FeedzaiTextDocumentService(List<CompletionService> completionServices) {
-    this.completionServices = completionServices;
+  private List<CompletionService> getCompletionServices(String uri) {
+    final CompletionServiceRegistry.Workspace current = this.workspace;
+
+    return current == null ? List.of() : current.getCompletionServices(uri);
   }
 
+  /**
+   * Set the completion item properties the client can resolve lazily, before any completion. The
+   * detail is always resolved lazily, the insert text only if the client supports it.
+   *
+   * @param properties The properties the client can resolve.
+   */
+  public void setCompletionResolveSupport(List<String> properties) {
+    this.lazyInsertText = properties.contains("insertText");
+  }
+
+  /**
+   * Complete at a position, on the request executor. The work stops at the next check once the
+   * client cancels the request, e.g. because the user kept typing.
+   *
+   * @param completionParams The completion parameters.
+   * @return The completions.
+   */
   @Override
   public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion(
       final CompletionParams completionParams) {
-    return CompletableFuture.supplyAsync(
-        () -> {
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker -> {
+          final String uri = completionParams.getTextDocument().getUri();
+          final Optional<TextDocument> document = this.documentStore.get(uri);
+          cancelChecker.checkCanceled();
+
+          final Optional<CompletionList> schemaCompletions =
+              document.flatMap(
+                  textDocument -> completeFromSchema(textDocument, completionParams.getPosition()));
+          if (schemaCompletions.isPresent()) {
+            return Either.forRight(schemaCompletions.get());
+          }
+          cancelChecker.checkCanceled();
+
+          final String prefix =
+              document
+                  .map(textDocument -> getWordBefore(textDocument, completionParams.getPosition()))
+                  .orElse("");
           final List<CompletionItem> completionItems = new ArrayList<>();
 
-          this.completionServices.stream()
-              .filter(
-                  completionService ->
-                      completionService.getAssociatedFileExtensions().stream()
-                          .anyMatch(
-                              extension ->
-                                  completionParams.getTextDocument().getUri().endsWith(extension)))
-              .forEach(
-                  completionService ->
-                      completionItems.addAll(completionService.getCompletionItems()));
-
-          return Either.forLeft(completionItems);
+          for (CompletionService completionService : getCompletionServices(uri)) {
+            cancelChecker.checkCanceled();
+            if (completionService.isReady()) {
+              completionItems.addAll(
+                  getCompletionIndex(completionService)
+                      .find(prefix, MAX_COMPLETION_ITEMS - completionItems.size()));
+            }
+          }
+
+          // the list is filtered on the server, so the client must ask again as the word grows.
+          return Either.forRight(new CompletionList(true, completionItems));
         });
   }
 
+  /**
+   * Get the completion index of a service, rebuilding it when the service was indexed again.
+   *
+   * @param completionService The completion service.
+   * @return The completion index.
+   */
+  private CompletionIndex getCompletionIndex(CompletionService completionService) {
+    final List<CompletionItem> items = completionService.getCompletionItems();
+
+    // racing readers may each build an index; a stale one is simply rebuilt on the next call.
+    final CompletionIndex index = this.completionIndexes.get(completionService);
+    if (index != null && index.isFor(items)) {
+      return index;
+    }
+
+    final CompletionIndex rebuilt =
+        new CompletionIndex(items, item -> toListItem(completionService, item));
+    this.completionIndexes.put(completionService, rebuilt);
+    return rebuilt;
+  }
+
+  /**
+   * Get the light version of a completion item listed to the client, carrying what is needed to
+   * resolve it in its data.
+   *
+   * @param completionService The completion service of the item.
+   * @param completionItem The completion item.
+   * @return The listed completion item.
+   */
+  private CompletionItem toListItem(
+      CompletionService completionService, CompletionItem completionItem) {
+    final CompletionItem listItem = new CompletionItem(completionItem.getLabel());
+
+    listItem.setKind(completionItem.getKind());
+    listItem.setInsertTextFormat(completionItem.getInsertTextFormat());
+    if (!this.lazyInsertText) {
+      listItem.setInsertText(completionItem.getInsertText());
+    }
+    listItem.setData(completionService.getName() + DATA_SEPARATOR + completionItem.getLabel());
+
+    return listItem;
+  }
+
+  /**
+   * Complete from the schemas of the ready schema services, when the position is inside a JSON
+   * object.
+   *
+   * @param textDocument The document.
+   * @param position The position.
+   * @return The completions, or empty to fall back to the snippets.
+   */
+  private Optional<CompletionList> completeFromSchema(
+      TextDocument textDocument, Position position) {
+    if (textDocument.getSyntaxTree() == null) {
+      return Optional.empty();
+    }
+
+    final List<SchemaService> schemaServices = getSchemaServices(textDocument.getUri());
+    if (schemaServices.isEmpty()) {
+      return Optional.empty();
+    }
+
+    return SchemaCompletionProvider.complete(
+        textDocument, textDocument.offsetAt(position), schemaServices);
+  }
+
+  /**
+   * Get the ready schema services of a document.
+   *
+   * @param uri The document URI.
+   * @return The schema services.
+   */
+  private List<SchemaService> getSchemaServices(String uri) {
+    final List<SchemaService> schemaServices = new ArrayList<>();
+    for (CompletionService completionService : getCompletionServices(uri)) {
+      if (completionService.isReady() && completionService instanceof SchemaService) {
+        schemaServices.add((SchemaService) completionService);
+      }
+    }
+
+    return schemaServices;
+  }
+
+  /** Validate every open document again, e.g. after a completion service becomes ready. */
+  public void validateAll() {
+    this.diagnosticsScheduler.scheduleAll();
+  }
+
+  /** Release the per-client resources, once the client is gone. */
+  public void dispose() {
+    this.diagnosticsScheduler.shutdown();
+  }
+
+  /**
+   * Get the word being typed before a position.
+   *
+   * @param textDocument The document.
+   * @param position The position.
+   * @return The word before the position, or an empty string.
+   */
+  private static String getWordBefore(TextDocument textDocument, Position position) {
+    final Rope content = textDocument.getContent();
+    final int end = textDocument.offsetAt(position);
+
+    int start = end;
+    while (start > 0 && isWordPart(content.charAt(start - 1))) {
+      start--;
+    }
+
+    return content.substring(start, end);
+  }
+
+  /**
+   * Whether the character is part of a completion word.
+   *
+   * @param c The character.
+   * @return Whether the character is part of a word.
+   */
+  private static boolean isWordPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+  }
+
+  /**
+   * Resolve a listed completion item, filling the detail, the insert text and the documentation
+   * from the indexed item of its service.
+   *
+   * @param completionItem The listed completion item.
+   * @return The resolved completion item, or the item itself if it cannot be resolved.
+   */
   @Override
   public CompletableFuture<CompletionItem> resolveCompletionItem(
       final CompletionItem completionItem) {
-    return null;
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker -> {
+          final String data = getData(completionItem);
+          final int separator = data == null ? -1 : data.indexOf(DATA_SEPARATOR);
+          if (separator < 0) {
+            return completionItem;
+          }
+
+          final Optional<CompletionService> completionService =
+              Optional.ofNullable(this.workspace)
+                  .flatMap(current -> current.getCompletionService(data.substring(0, separator)))
+                  .filter(CompletionService::isReady);
+          final Optional<CompletionItem> indexed =
+              completionService.flatMap(
+                  service -> getCompletionIndex(service).resolve(data.substring(separator + 1)));
+          if (indexed.isEmpty()) {
+            return completionItem;
+          }
+
+          cancelChecker.checkCanceled();
+
+          final CompletionItem resolved = new CompletionItem(completionItem.getLabel());
+          resolved.setKind(indexed.get().getKind());
+          resolved.setDetail(indexed.get().getDetail());
+          resolved.setInsertText(indexed.get().getInsertText());
+          resolved.setInsertTextFormat(indexed.get().getInsertTextFormat());
+          resolved.setData(completionItem.getData());
+          completionService
+              .get()
+              .getDocumentation(indexed.get())
+              .ifPresent(
+                  documentation ->
+                      resolved.setDocumentation(
+                          new MarkupContent(MarkupKind.MARKDOWN, documentation)));
+
+          return resolved;
+        });
+  }
+
+  /**
+   * Get the data of a listed completion item, as sent back by the client.
+   *
+   * @param completionItem The completion item.
+   * @return The data, or null if the item carries no string data.
+   */
+  private static String getData(CompletionItem completionItem) {
+    final Object data = completionItem.getData();
+
+    if (data instanceof JsonPrimitive && ((JsonPrimitive) data).isString()) {
+      return ((JsonPrimitive) data).getAsString();
+    }
+
+    return data instanceof String ? (String) data : null;
   }
 
+  /**
+   * Describe the object key under the cursor from the schemas of the ready schema services.
+   *
+   * @param params The hover parameters.
+   * @return The hover, or null if the cursor is not on a known key.
+   */
   @Override
   public CompletableFuture<Hover> hover(final HoverParams params) {
-    return null;
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker -> {
+          final String uri = params.getTextDocument().getUri();
+          final Optional<TextDocument> document =
+              this.documentStore
+                  .get(uri)
+                  .filter(textDocument -> textDocument.getSyntaxTree() != null);
+          if (document.isEmpty()) {
+            return null;
+          }
+
+          final List<SchemaService> schemaServices = getSchemaServices(uri);
+          cancelChecker.checkCanceled();
+
+          return SchemaHoverProvider.hover(
+                  document.get(), document.get().offsetAt(params.getPosition()), schemaServices)
+              .orElse(null);
+        });
   }
 
   @Override
@@ -120,10 +433,30 @@ public final class FeedzaiTextDocumentService
     return null;
   }
 
+  /**
+   * Outline the patches and conditions of a document.
+   *
+   * @param documentSymbolParams The document.
+   * @return The document symbols, empty if the document is not open.
+   */
   @Override
   public CompletableFuture<List<Either<SymbolInformation, DocumentSymbol>>> documentSymbol(
       final DocumentSymbolParams documentSymbolParams) {
-    return null;
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker -> {
+          final Optional<TextDocument> document =
+              this.documentStore.get(documentSymbolParams.getTextDocument().getUri());
+          cancelChecker.checkCanceled();
+
+          final List<Either<SymbolInformation, DocumentSymbol>> symbols = new ArrayList<>();
+          document.ifPresent(
+              textDocument ->
+                  this.documentSymbolProvider
+                      .getSymbols(textDocument)
+                      .forEach(symbol -> symbols.add(Either.forRight(symbol))));
+          return symbols;
+        });
   }
 
   @Override
@@ -142,22 +475,69 @@ public final class FeedzaiTextDocumentService
     return null;
   }
 
+  /**
+   * Format a document, with tabs as in the patch snippets.
+   *
+   * @param documentFormattingParams The document.
+   * @return The whitespace edits, empty if the document is not open or not valid JSON.
+   */
   @Override
   public CompletableFuture<List<? extends TextEdit>> formatting(
       final DocumentFormattingParams documentFormattingParams) {
-    return null;
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker ->
+            this.documentStore
+                .get(documentFormattingParams.getTextDocument().getUri())
+                .map(JsonFormatter::format)
+                .orElse(List.of()));
   }
 
+  /**
+   * Format the nodes of a document within a range.
+   *
+   * @param documentRangeFormattingParams The document and the range.
+   * @return The whitespace edits, empty if the document is not open or not valid JSON.
+   */
   @Override
   public CompletableFuture<List<? extends TextEdit>> rangeFormatting(
       final DocumentRangeFormattingParams documentRangeFormattingParams) {
-    return null;
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker ->
+            this.documentStore
+                .get(documentRangeFormattingParams.getTextDocument().getUri())
+                .map(
+                    textDocument ->
+                        JsonFormatter.format(
+                            textDocument,
+                            textDocument.offsetAt(
+                                documentRangeFormattingParams.getRange().getStart()),
+                            textDocument.offsetAt(
+                                documentRangeFormattingParams.getRange().getEnd())))
+                .orElse(List.of()));
   }
 
+  /**
+   * Format the object or array closed by a typed bracket.
+   *
+   * @param documentOnTypeFormattingParams The document and the position after the bracket.
+   * @return The whitespace edits, empty if the document is not open or not valid JSON.
+   */
   @Override
   public CompletableFuture<List<? extends TextEdit>> onTypeFormatting(
       final DocumentOnTypeFormattingParams documentOnTypeFormattingParams) {
-    return null;
+    return CompletableFutures.computeAsync(
+        this.executor,
+        cancelChecker ->
+            this.documentStore
+                .get(documentOnTypeFormattingParams.getTextDocument().getUri())
+                .map(
+                    textDocument ->
+                        JsonFormatter.formatClosed(
+                            textDocument,
+                            textDocument.offsetAt(documentOnTypeFormattingParams.getPosition())))
+                .orElse(List.of()));
   }
 
   @Override
@@ -166,13 +546,26 @@ public final class FeedzaiTextDocumentService
   }
 
   @Override
-  public void didOpen(final DidOpenTextDocumentParams didOpenTextDocumentParams) {}
+  public void didOpen(final DidOpenTextDocumentParams didOpenTextDocumentParams) {
+    this.documentStore.open(didOpenTextDocumentParams.getTextDocument());
+    this.diagnosticsScheduler.schedule(didOpenTextDocumentParams.getTextDocument().getUri());
+  }
 
   @Override
-  public void didChange(final DidChangeTextDocumentParams didChangeTextDocumentParams) {}
+  public void didChange(final DidChangeTextDocumentParams didChangeTextDocumentParams) {
+    this.documentStore
+        .change(
+            didChangeTextDocumentParams.getTextDocument(),
+            didChangeTextDocumentParams.getContentChanges())
+        .ifPresent(textDocument -> this.diagnosticsScheduler.schedule(textDocument.getUri()));
+  }
 
   @Override
-  public void didClose(final DidCloseTextDocumentParams didCloseTextDocumentParams) {}
+  public void didClose(final DidCloseTextDocumentParams didCloseTextDocumentParams) {
+    this.documentStore.close(didCloseTextDocumentParams.getTextDocument().getUri());
+    this.diagnosticsScheduler.clear(didCloseTextDocumentParams.getTextDocument().getUri());
+    this.documentSymbolProvider.forget(didCloseTextDocumentParams.getTextDocument().getUri());
+  }
 
   @Override
   public void didSave(final DidSaveTextDocumentParams didSaveTextDocumentParams) {}
@@ -8,14 +8,25 @@
 
 package com.feedzai.commons.ls.languageserver;
 
+import com.feedzai.commons.ls.languageserver.api.CompletionService;
+import com.feedzai.commons.ls.languageserver.impl.symbols.WorkspaceSymbolIndex;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The Feedzai Workspace Service.
@@ -23,18 +34,99 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
  * @since 0.1.0
  */
 public final class FeedzaiWorkspaceService implements org.eclipse.lsp4j.services.WorkspaceService {
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(FeedzaiWorkspaceService.class);
+
+  /** The maximum number of symbols answering a workspace symbol query. */
+  private static final int MAX_SYMBOLS = 1000;
+
+  /** The completion service registry. */
+  private final CompletionServiceRegistry completionServiceRegistry;
+
+  /** The workspace folders of the client. */
+  private volatile List<Path> workspaceFolders = List.of();
+
+  /**
+   * Constructor.
+   *
+   * @param completionServiceRegistry The completion service registry.
+   */
+  public FeedzaiWorkspaceService(CompletionServiceRegistry completionServiceRegistry) {
+    this.completionServiceRegistry = completionServiceRegistry;
+  }
+
+  /**
+   * Set the workspace folders of the client, the only ones searched for its workspace symbols.
+   *
+   * @param workspaceFolders The workspace folders.
+   */
+  public void setWorkspaceFolders(List<Path> workspaceFolders) {
+    this.workspaceFolders = List.copyOf(workspaceFolders);
+  }
+
+  /**
+   * Search the patch ops, condition operators and JSON paths of the client's workspace folders,
+   * from memory.
+   *
+   * @param workspaceSymbolParams The query.
+   * @return The matching symbols, at most {@value #MAX_SYMBOLS}.
+   */
   @Override
   public CompletableFuture<
           Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>>
       symbol(final WorkspaceSymbolParams workspaceSymbolParams) {
-    return null;
+    final String query =
+        workspaceSymbolParams.getQuery() == null ? "" : workspaceSymbolParams.getQuery();
+
+    return CompletableFuture.completedFuture(
+        Either.forRight(
+            this.completionServiceRegistry
+                .getWorkspaceSymbolIndex()
+                .search(query, MAX_SYMBOLS, this.workspaceFolders)));
   }
 
   @Override
   public void didChangeConfiguration(
       final DidChangeConfigurationParams didChangeConfigurationParams) {}
 
+  /**
+   * Reload the completion services whose JAR or project files changed, and index the changed patch
+   * files again, in the background.
+   *
+   * @param didChangeWatchedFilesParams The changed files.
+   */
   @Override
-  public void didChangeWatchedFiles(
-      final DidChangeWatchedFilesParams didChangeWatchedFilesParams) {}
+  public void didChangeWatchedFiles(final DidChangeWatchedFilesParams didChangeWatchedFilesParams) {
+    final Set<CompletionService> affected = new LinkedHashSet<>();
+    final WorkspaceSymbolIndex workspaceSymbolIndex =
+        this.completionServiceRegistry.getWorkspaceSymbolIndex();
+
+    for (FileEvent change : didChangeWatchedFilesParams.getChanges()) {
+      final Path path;
+      try {
+        path = Path.of(URI.create(change.getUri()));
+      } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+        this.logger.debug("Ignoring changed file: {}", change.getUri());
+        continue;
+      }
+
+      final boolean deleted = change.getType() == FileChangeType.Deleted;
+      for (CompletionService completionService :
+          this.completionServiceRegistry.getAffectedServices(path)) {
+        completionService.fileChanged(path, deleted);
+        affected.add(completionService);
+      }
+
+      if (workspaceSymbolIndex.accepts(path)) {
+        if (deleted) {
+          workspaceSymbolIndex.remove(path);
+        } else {
+          workspaceSymbolIndex.update(path);
+        }
+      }
+    }
+
+    // the registry revalidates the documents of every client once a reload completes.
+    affected.forEach(this.completionServiceRegistry::reload);
+  }
 }
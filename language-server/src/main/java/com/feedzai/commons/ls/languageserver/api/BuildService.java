@@ -8,6 +8,8 @@
 
 package com.feedzai.commons.ls.languageserver.api;
 
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,4 +26,49 @@ public interface BuildService {
    * @return The artifact version.
    */
   Optional<String> getVersion(final String groupId, final String artifactId);
+
+  /**
+   * Set the workspace folders, for build services that resolve versions from the project files.
+   * Others ignore them.
+   *
+   * @param workspaceFolders The workspace folders.
+   */
+  default void setWorkspaceFolders(final List<Path> workspaceFolders) {}
+
+  /**
+   * Get the glob patterns of the files an artifact is resolved from, for the client to watch.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @return The absolute glob patterns.
+   */
+  default List<String> getWatchedFiles(final String groupId, final String artifactId) {
+    return List.of();
+  }
+
+  /**
+   * Notify the service that one of the watched files changed, before the artifact is refreshed.
+   *
+   * @param path The changed file.
+   * @param deleted Whether the file was deleted.
+   */
+  default void fileChanged(final Path path, final boolean deleted) {}
+
+  /**
+   * Refresh what is known about an artifact, after the client reported changes to its files.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   */
+  default void refresh(final String groupId, final String artifactId) {}
+
+  /**
+   * Get the artifact JAR path.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @param version The artifact version.
+   * @return The artifact JAR path.
+   */
+  Path getArtifactPath(final String groupId, final String artifactId, final String version);
 }
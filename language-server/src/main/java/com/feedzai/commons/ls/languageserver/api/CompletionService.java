@@ -8,7 +8,9 @@
 
 package com.feedzai.commons.ls.languageserver.api;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import org.eclipse.lsp4j.CompletionItem;
 
 /**
@@ -27,10 +29,52 @@ public interface CompletionService {
   /**
    * Get the project version.
    *
-   * @return the project version.
+   * @return the project version, or null before indexing.
    */
   String getVersion();
 
+  /**
+   * Set the workspace folders, before indexing.
+   *
+   * @param workspaceFolders the workspace folders.
+   */
+  default void setWorkspaceFolders(List<Path> workspaceFolders) {}
+
+  /**
+   * Index the completion items. Blocks until the items are available. Indexing again replaces the
+   * items as a whole, so readers see either the old or the new items.
+   */
+  void index();
+
+  /**
+   * Notify the service that one of its watched files changed, before it is reloaded.
+   *
+   * @param path the changed file.
+   * @param deleted whether the file was deleted.
+   */
+  default void fileChanged(Path path, boolean deleted) {}
+
+  /** Index the completion items again, after their watched files changed. */
+  default void reload() {
+    this.index();
+  }
+
+  /**
+   * Get the glob patterns of the files the completion items are indexed from.
+   *
+   * @return the absolute glob patterns.
+   */
+  default List<String> getWatchedFiles() {
+    return List.of();
+  }
+
+  /**
+   * Whether the completion items are indexed.
+   *
+   * @return whether the service is ready.
+   */
+  boolean isReady();
+
   /**
    * Get the completions for a given service.
    *
@@ -38,6 +82,16 @@ public interface CompletionService {
    */
   List<CompletionItem> getCompletionItems();
 
+  /**
+   * Get the documentation of a completion item, computed when the client resolves the item.
+   *
+   * @param completionItem the completion item.
+   * @return the Markdown documentation, or empty if there is none.
+   */
+  default Optional<String> getDocumentation(CompletionItem completionItem) {
+    return Optional.empty();
+  }
+
   /**
    * Get the associated file extensions.
    *
@@ -0,0 +1,64 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.api;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Schema Service. Provides the JSON schemas of the objects a completion service knows about, each
+ * identified by the value of a discriminator property, such as the op of a patch.
+ *
+ * @since 0.1.0
+ */
+public interface SchemaService {
+  /**
+   * Get the discriminator properties.
+   *
+   * @return the discriminator properties.
+   */
+  List<String> getDiscriminators();
+
+  /**
+   * Get the known values of a discriminator property.
+   *
+   * @param discriminator The discriminator property.
+   * @return the discriminator values.
+   */
+  List<String> getDiscriminatorValues(String discriminator);
+
+  /**
+   * Get the schema of the objects with a given discriminator value.
+   *
+   * @param discriminator The discriminator property.
+   * @param value The discriminator value.
+   * @return the schema.
+   */
+  Optional<JsonSchema> getSchema(String discriminator, String value);
+
+  /**
+   * Resolve a schema reference.
+   *
+   * @param schema The schema, possibly a reference.
+   * @return the referenced schema, or the schema itself if it is not a reference.
+   */
+  JsonSchema dereference(JsonSchema schema);
+
+  /**
+   * Describe a property of the objects with a given discriminator value.
+   *
+   * @param discriminator The discriminator property.
+   * @param value The discriminator value.
+   * @param propertyPath The property names from the object down to the property, array items being
+   *     transparent.
+   * @return the Markdown description, or empty if the property is unknown.
+   */
+  Optional<String> describeProperty(String discriminator, String value, List<String> propertyPath);
+}
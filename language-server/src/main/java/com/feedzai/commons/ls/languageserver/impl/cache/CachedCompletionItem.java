@@ -0,0 +1,46 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import lombok.Getter;
+
+/**
+ * Cached completion item.
+ *
+ * @since 0.1.0
+ */
+public final class CachedCompletionItem {
+  /** item label. */
+  @Getter private final String label;
+
+  /** item detail. */
+  @Getter private final String detail;
+
+  /** item insert text. */
+  @Getter private final String insertText;
+
+  /** item schema, or null if the item has no schema. */
+  @Getter private final JsonSchema schema;
+
+  /** Constructor. */
+  @JsonCreator
+  public CachedCompletionItem(
+      @JsonProperty("label") String label,
+      @JsonProperty("detail") String detail,
+      @JsonProperty("insertText") String insertText,
+      @JsonProperty("schema") JsonSchema schema) {
+    this.label = label;
+    this.detail = detail;
+    this.insertText = insertText;
+    this.schema = schema;
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk completion cache, keyed by artifact coordinates and JAR checksum.
+ *
+ * @since 0.1.0
+ */
+public final class CompletionCache {
+  /** Cache format version, bumped whenever the entry layout changes. */
+  private static final int FORMAT = 2;
+
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(CompletionCache.class);
+
+  /** The object mapper. */
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** The cache directory. */
+  private final Path directory;
+
+  /** Constructor. */
+  public CompletionCache() {
+    this(getDefaultDirectory());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param directory The cache directory.
+   */
+  public CompletionCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Load the cached completion items.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @param version The artifact version.
+   * @param checksum The artifact JAR checksum.
+   * @return The cached completion items, if the entry exists and matches the checksum.
+   */
+  public Optional<List<CachedCompletionItem>> load(
+      String groupId, String artifactId, String version, String checksum) {
+    final Path entryPath = getEntryPath(groupId, artifactId, version);
+
+    if (!Files.isRegularFile(entryPath)) {
+      return Optional.empty();
+    }
+
+    try {
+      final CompletionCacheEntry entry =
+          this.objectMapper.readValue(entryPath.toFile(), CompletionCacheEntry.class);
+
+      if (entry.getFormat() != FORMAT || !Objects.equals(entry.getChecksum(), checksum)) {
+        this.logger.info("Stale completion cache entry: {}", entryPath);
+        return Optional.empty();
+      }
+
+      return Optional.ofNullable(entry.getItems());
+    } catch (IOException e) {
+      this.logger.warn("Error reading completion cache entry: {}", entryPath, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Store the completion items.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @param version The artifact version.
+   * @param checksum The artifact JAR checksum.
+   * @param items The completion items.
+   */
+  public void store(
+      String groupId,
+      String artifactId,
+      String version,
+      String checksum,
+      List<CachedCompletionItem> items) {
+    final Path entryPath = getEntryPath(groupId, artifactId, version);
+    final CompletionCacheEntry entry =
+        new CompletionCacheEntry(FORMAT, groupId, artifactId, version, checksum, items);
+
+    try {
+      Files.createDirectories(entryPath.getParent());
+
+      // several servers may index the same artifact at once, so publish the entry atomically.
+      final Path temporaryPath = Files.createTempFile(entryPath.getParent(), "entry", ".tmp");
+      try {
+        this.objectMapper.writeValue(temporaryPath.toFile(), entry);
+        Files.move(
+            temporaryPath,
+            entryPath,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporaryPath);
+      }
+    } catch (IOException e) {
+      this.logger.warn("Error writing completion cache entry: {}", entryPath, e);
+    }
+  }
+
+  /**
+   * Compute the JAR checksum.
+   *
+   * @param jarFile The JAR file path.
+   * @return The hex encoded SHA-256 checksum.
+   * @throws IOException If the JAR cannot be read.
+   */
+  public String checksum(Path jarFile) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+
+    try (InputStream in = new DigestInputStream(Files.newInputStream(jarFile), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    }
+
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (byte b : digest.digest()) {
+      stringBuilder.append(String.format("%02x", b));
+    }
+
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Get the cache entry path.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @param version The artifact version.
+   * @return The cache entry path.
+   */
+  private Path getEntryPath(String groupId, String artifactId, String version) {
+    return this.directory.resolve(groupId).resolve(artifactId).resolve(version + ".json");
+  }
+
+  /**
+   * Get the default cache directory.
+   *
+   * @return The default cache directory.
+   */
+  private static Path getDefaultDirectory() {
+    final String directory = System.getProperty("feedzails.cache.dir");
+    if (directory != null) {
+      return Path.of(directory);
+    }
+
+    final String xdgCacheHome = System.getenv("XDG_CACHE_HOME");
+    if (xdgCacheHome != null && !xdgCacheHome.isBlank()) {
+      return Path.of(xdgCacheHome, "feedzails");
+    }
+
+    return Path.of(System.getProperty("user.home"), ".cache", "feedzails");
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Completion cache entry.
+ *
+ * @since 0.1.0
+ */
+public final class CompletionCacheEntry {
+  /** cache format version. */
+  @Getter private final int format;
+
+  /** artifact group id. */
+  @Getter private final String groupId;
+
+  /** artifact id. */
+  @Getter private final String artifactId;
+
+  /** artifact version. */
+  @Getter private final String version;
+
+  /** artifact JAR checksum. */
+  @Getter private final String checksum;
+
+  /** cached completion items. */
+  @Getter private final List<CachedCompletionItem> items;
+
+  /** Constructor. */
+  @JsonCreator
+  public CompletionCacheEntry(
+      @JsonProperty("format") int format,
+      @JsonProperty("groupId") String groupId,
+      @JsonProperty("artifactId") String artifactId,
+      @JsonProperty("version") String version,
+      @JsonProperty("checksum") String checksum,
+      @JsonProperty("items") List<CachedCompletionItem> items) {
+    this.format = format;
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.checksum = checksum;
+    this.items = items;
+  }
+}
@@ -10,18 +10,29 @@ package com.feedzai.commons.ls.languageserver.impl.completion;
 
 import com.feedzai.commons.ls.languageserver.api.BuildService;
 import com.feedzai.commons.ls.languageserver.api.CompletionService;
+import com.feedzai.commons.ls.languageserver.impl.cache.CachedCompletionItem;
+import com.feedzai.commons.ls.languageserver.impl.cache.CompletionCache;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
 import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
-import java.util.jar.JarEntry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import org.eclipse.lsp4j.CompletionItem;
-import org.eclipse.lsp4j.CompletionItemKind;
-import org.eclipse.lsp4j.InsertTextFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,58 +42,241 @@ import org.slf4j.LoggerFactory;
  * @since 0.1.0
  */
 public abstract class AbstractCompletionService implements CompletionService {
+  /** The indexing pool, shared by all completion services. */
+  private static final ForkJoinPool INDEXING_POOL =
+      new ForkJoinPool(
+          Runtime.getRuntime().availableProcessors(),
+          pool -> {
+            final ForkJoinWorkerThread thread =
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("feedzails-indexer-" + thread.getPoolIndex());
+            return thread;
+          },
+          null,
+          false);
+
   /** Logger for this class. */
   private final Logger logger = LoggerFactory.getLogger(AbstractCompletionService.class);
 
   /** The build service. */
   @Getter private final BuildService buildService;
 
+  /** The completion cache. */
+  private final CompletionCache completionCache = new CompletionCache();
+
   /** The service name. */
   @Getter private final String name;
 
-  /** The version. */
-  @Getter private final String version;
+  /** The artifact group id. */
+  @Getter private final String groupId;
+
+  /** The artifact id. */
+  @Getter private final String artifactId;
 
-  /** The completion items. */
-  @Getter private final List<CompletionItem> completionItems = new ArrayList<>();
+  /** The generation of the last indexing run that started. */
+  private final AtomicLong generations = new AtomicLong();
+
+  /** The published snapshot. */
+  private final AtomicReference<CompletionSnapshot> snapshot =
+      new AtomicReference<>(CompletionSnapshot.EMPTY);
 
   /** Constructor. */
   protected AbstractCompletionService(
       String name, String groupId, String artifactId, BuildService buildService) {
     this.name = name;
-    this.version = buildService.getVersion(groupId, artifactId).orElseThrow();
+    this.groupId = groupId;
+    this.artifactId = artifactId;
     this.buildService = buildService;
   }
 
-  /** Load the classes. */
-  protected abstract void process();
+  @Override
+  public void setWorkspaceFolders(List<Path> workspaceFolders) {
+    this.buildService.setWorkspaceFolders(workspaceFolders);
+  }
+
+  @Override
+  public void fileChanged(Path path, boolean deleted) {
+    this.buildService.fileChanged(path, deleted);
+  }
+
+  /**
+   * Load the classes.
+   *
+   * @param jarFile The JAR file path.
+   * @param items The builder collecting the completion items.
+   */
+  protected abstract void process(Path jarFile, CompletionSnapshot.Builder items);
+
+  /**
+   * Index the completion items, skipping {@link #process} when the cache is still valid. Every run
+   * builds its own snapshot and publishes it only if no newer run did, so runs may overlap. A run
+   * keeps the published snapshot when the JAR file did not change.
+   */
+  @Override
+  public void index() {
+    final long generation = this.generations.incrementAndGet();
+    final long start = System.nanoTime();
+
+    final Optional<String> resolved = this.buildService.getVersion(this.groupId, this.artifactId);
+    if (resolved.isEmpty()) {
+      this.logger.error("No version of {}:{} to index", this.groupId, this.artifactId);
+      return;
+    }
+
+    final String indexedVersion = resolved.get();
+    final Path jarFile =
+        this.buildService.getArtifactPath(this.groupId, this.artifactId, indexedVersion);
+
+    final String checksum;
+    try {
+      checksum = this.completionCache.checksum(jarFile);
+    } catch (IOException e) {
+      this.logger.error("Error reading JAR file: {}", jarFile, e);
+      return;
+    }
+
+    final CompletionSnapshot current = this.snapshot.get();
+    if (current.isIndexed()
+        && indexedVersion.equals(current.getVersion())
+        && checksum.equals(current.getChecksum())) {
+      this.logger.debug("{} {} did not change", this.name, indexedVersion);
+      return;
+    }
+
+    final CompletionSnapshot indexed =
+        this.loadCompletionItems(jarFile, indexedVersion, checksum)
+            .build(generation, indexedVersion, checksum);
+    this.onIndexed(indexed);
+
+    Metrics.get().recordSince("indexing.total", start);
+
+    if (this.snapshot.accumulateAndGet(indexed, CompletionSnapshot::newest) == indexed) {
+      Metrics.get().setGauge("items." + this.name, indexed.getCompletionItems().size());
+      this.logger.info(
+          "Indexed {} {}: {} items",
+          this.name,
+          indexedVersion,
+          indexed.getCompletionItems().size());
+    } else {
+      this.logger.debug("{} {} was superseded by a newer run", this.name, indexedVersion);
+    }
+  }
+
+  @Override
+  public void reload() {
+    this.buildService.refresh(this.groupId, this.artifactId);
+    this.index();
+  }
+
+  @Override
+  public List<String> getWatchedFiles() {
+    return this.buildService.getWatchedFiles(this.groupId, this.artifactId);
+  }
+
+  @Override
+  public String getVersion() {
+    return this.snapshot.get().getVersion();
+  }
+
+  @Override
+  public boolean isReady() {
+    return this.snapshot.get().isIndexed();
+  }
+
+  @Override
+  public List<CompletionItem> getCompletionItems() {
+    return this.snapshot.get().getCompletionItems();
+  }
 
   /**
-   * Load the classes from the JAR file.
+   * Load the completion items from the cache, or process the JAR file and cache them.
    *
    * @param jarFile The JAR file path.
+   * @param version The artifact version.
+   * @param checksum The JAR file checksum.
+   * @return The builder holding the completion items.
+   */
+  private CompletionSnapshot.Builder loadCompletionItems(
+      Path jarFile, String version, String checksum) {
+    final CompletionSnapshot.Builder items = new CompletionSnapshot.Builder();
+    final long start = System.nanoTime();
+
+    final Optional<List<CachedCompletionItem>> cachedItems =
+        this.completionCache.load(this.groupId, this.artifactId, version, checksum);
+
+    if (cachedItems.isPresent()) {
+      cachedItems.get().forEach(items::addCompletionItem);
+      Metrics.get().recordSince("indexing.cacheLoad", start);
+      return items;
+    }
+
+    this.process(jarFile, items);
+
+    this.completionCache.store(
+        this.groupId, this.artifactId, version, checksum, items.getCachedCompletionItems());
+
+    return items;
+  }
+
+  /**
+   * Called with every indexed snapshot, before it is published. Services that derive more state
+   * from the items rebuild it here, publishing it by the snapshot generation too.
+   *
+   * @param indexed The indexed snapshot.
+   */
+  protected void onIndexed(CompletionSnapshot indexed) {}
+
+  /**
+   * Create a class loader for the JAR file. It must stay open while the loaded classes are in use,
+   * since their field types are only resolved on demand.
+   *
+   * @param jarFile The JAR file path.
+   * @return The class loader.
+   * @throws MalformedURLException If the JAR file path is invalid.
+   */
+  protected URLClassLoader createClassLoader(String jarFile) throws MalformedURLException {
+    final URL[] url = {new File(jarFile).toURI().toURL()};
+
+    return URLClassLoader.newInstance(url);
+  }
+
+  /**
+   * Load the classes from the JAR file. Candidates are picked from the entry names and the class
+   * file metadata, so only the matching classes are defined.
+   *
+   * @param classLoader The class loader of the JAR file.
+   * @param jarFile The JAR file path.
+   * @param nameFilter The filter on binary class names.
+   * @param classFilter The filter on class file metadata.
    * @return The classes.
    */
-  protected List<Class<?>> loadClassesFromJar(String jarFile) {
+  protected List<Class<?>> loadClassesFromJar(
+      URLClassLoader classLoader,
+      String jarFile,
+      Predicate<String> nameFilter,
+      Predicate<ClassInfo> classFilter) {
     final List<Class<?>> classes = new ArrayList<>();
 
     try (JarFile jar = new JarFile(new File(jarFile))) {
-      final Enumeration<JarEntry> entries = jar.entries();
-      final URL[] url = {new URL("jar:file:" + jarFile + "!/")};
-
-      try (URLClassLoader classLoader = URLClassLoader.newInstance(url)) {
-        while (entries.hasMoreElements()) {
-          final JarEntry entry = entries.nextElement();
-
-          if (entry.getName().endsWith(".class")) {
-            final String className = entry.getName().replace("/", ".").replace(".class", "");
-            final Class<?> cls = classLoader.loadClass(className);
-            classes.add(cls);
-          }
+      final long scanStart = System.nanoTime();
+      final List<ClassInfo> candidates = JarScanner.scan(jar, nameFilter);
+      Metrics.get().recordSince("indexing.jarScan", scanStart);
+
+      final long loadStart = System.nanoTime();
+      for (ClassInfo classInfo : candidates) {
+        if (!classFilter.test(classInfo)) {
+          continue;
         }
 
-        return classes;
+        try {
+          classes.add(classLoader.loadClass(classInfo.getName()));
+        } catch (ClassNotFoundException | LinkageError e) {
+          this.logger.warn("Error loading class {}", classInfo.getName(), e);
+        }
       }
+      Metrics.get().recordSince("indexing.classLoad", loadStart);
+
+      return classes;
     } catch (Exception e) {
       this.logger.error("Error loading classes from JAR file", e);
       return classes;
@@ -90,21 +284,23 @@ public abstract class AbstractCompletionService implements CompletionService {
   }
 
   /**
-   * Add the completion items.
+   * Map the items in parallel on the indexing pool, dropping null results. The results keep the
+   * order of the items, so the outcome does not depend on scheduling.
    *
-   * @param label The label.
-   * @param detail The detail.
-   * @param insertText The insert text.
+   * @param items The items.
+   * @param mapper The mapper.
+   * @param <T> The item type.
+   * @param <R> The result type.
+   * @return The results.
    */
-  protected void addCompletionItem(String label, String detail, String insertText) {
-    final CompletionItem completionItem = new CompletionItem();
-
-    completionItem.setKind(CompletionItemKind.Snippet);
-    completionItem.setLabel(label);
-    completionItem.setDetail(detail);
-    completionItem.setInsertText(insertText);
-    completionItem.setInsertTextFormat(InsertTextFormat.Snippet);
-
-    this.completionItems.add(completionItem);
+  protected <T, R> List<R> parallelMap(List<T> items, Function<T, R> mapper) {
+    return INDEXING_POOL
+        .submit(
+            () ->
+                items.parallelStream()
+                    .map(mapper)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()))
+        .join();
   }
 }
@@ -0,0 +1,40 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion;
+
+import java.lang.reflect.Modifier;
+import lombok.Getter;
+
+/**
+ * Class metadata read straight from the class file bytes, without defining the class.
+ *
+ * @since 0.1.0
+ */
+public final class ClassInfo {
+  /** The binary class name. */
+  @Getter private final String name;
+
+  /** The class access flags. */
+  @Getter private final int accessFlags;
+
+  /** Constructor. */
+  public ClassInfo(String name, int accessFlags) {
+    this.name = name;
+    this.accessFlags = accessFlags;
+  }
+
+  /**
+   * Whether the class can be instantiated, i.e. is neither an interface nor abstract.
+   *
+   * @return whether the class is concrete.
+   */
+  public boolean isConcrete() {
+    return (this.accessFlags & (Modifier.INTERFACE | Modifier.ABSTRACT)) == 0;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import org.eclipse.lsp4j.CompletionItem;
+
+/**
+ * Completion Index. A sorted index over the words of the completion item labels, answering prefix
+ * queries with a binary search. The index answers with the items as listed to the client, which may
+ * be lighter than the indexed items, and resolves them back to the indexed items by label.
+ *
+ * @since 0.1.0
+ */
+public final class CompletionIndex {
+  /** Rank of a match on the start of the label. */
+  private static final int LABEL_RANK = 0;
+
+  /** Rank of a match on a later word of the label. */
+  private static final int WORD_RANK = 1;
+
+  /** The index keys, sorted. */
+  private final String[] keys;
+
+  /** The ranks, aligned with the keys. */
+  private final int[] ranks;
+
+  /** The listed completion items, aligned with the keys. */
+  private final CompletionItem[] items;
+
+  /** The listed completion items, in their original order. */
+  private final List<CompletionItem> allItems;
+
+  /** The indexed completion items, by label. */
+  private final Map<String, CompletionItem> itemsByLabel = new HashMap<>();
+
+  /** The list the index was built from. */
+  private final List<CompletionItem> source;
+
+  /**
+   * Constructor.
+   *
+   * @param completionItems The completion items.
+   */
+  public CompletionIndex(List<CompletionItem> completionItems) {
+    this(completionItems, UnaryOperator.identity());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param completionItems The completion items.
+   * @param toListItem Maps an indexed item to the item listed to the client.
+   */
+  public CompletionIndex(
+      List<CompletionItem> completionItems, UnaryOperator<CompletionItem> toListItem) {
+    final List<Entry> entries = new ArrayList<>();
+    final List<CompletionItem> listItems = new ArrayList<>();
+
+    for (CompletionItem completionItem : completionItems) {
+      final CompletionItem listItem = toListItem.apply(completionItem);
+      listItems.add(listItem);
+      this.itemsByLabel.putIfAbsent(completionItem.getLabel(), completionItem);
+
+      final String label = completionItem.getLabel().toLowerCase(Locale.ROOT);
+      entries.add(new Entry(label, LABEL_RANK, listItem));
+
+      for (int i = label.indexOf(' '); i >= 0; i = label.indexOf(' ', i + 1)) {
+        if (i + 1 < label.length()) {
+          entries.add(new Entry(label.substring(i + 1), WORD_RANK, listItem));
+        }
+      }
+    }
+
+    entries.sort(Comparator.comparing((Entry entry) -> entry.key));
+
+    this.keys = new String[entries.size()];
+    this.ranks = new int[entries.size()];
+    this.items = new CompletionItem[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      this.keys[i] = entries.get(i).key;
+      this.ranks[i] = entries.get(i).rank;
+      this.items[i] = entries.get(i).item;
+    }
+
+    this.allItems = List.copyOf(listItems);
+    this.source = completionItems;
+  }
+
+  /**
+   * Find the completion items matching a prefix, ranked by label matches first, then by matches on
+   * later words of the label.
+   *
+   * @param prefix The prefix typed so far.
+   * @param limit The maximum number of items.
+   * @return The matching completion items.
+   */
+  public List<CompletionItem> find(String prefix, int limit) {
+    if (prefix.isEmpty()) {
+      return this.allItems.size() <= limit ? this.allItems : this.allItems.subList(0, limit);
+    }
+
+    final String key = prefix.toLowerCase(Locale.ROOT);
+    final int from = lowerBound(key);
+    int to = from;
+    while (to < this.keys.length && this.keys[to].startsWith(key)) {
+      to++;
+    }
+
+    final List<CompletionItem> matches = new ArrayList<>();
+    final Set<CompletionItem> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int rank = LABEL_RANK; rank <= WORD_RANK && matches.size() < limit; rank++) {
+      for (int i = from; i < to && matches.size() < limit; i++) {
+        if (this.ranks[i] == rank && seen.add(this.items[i])) {
+          matches.add(this.items[i]);
+        }
+      }
+    }
+
+    return matches;
+  }
+
+  /**
+   * Get the indexed item of a label, to resolve a listed item.
+   *
+   * @param label The item label.
+   * @return The indexed item, or empty if no item has the label.
+   */
+  public Optional<CompletionItem> resolve(String label) {
+    return Optional.ofNullable(this.itemsByLabel.get(label));
+  }
+
+  /**
+   * Whether the index was built from a list, as opposed to an older or newer one.
+   *
+   * @param completionItems The completion items.
+   * @return Whether the index was built from the list.
+   */
+  public boolean isFor(List<CompletionItem> completionItems) {
+    return this.source == completionItems;
+  }
+
+  /**
+   * Get the number of indexed completion items.
+   *
+   * @return The number of completion items.
+   */
+  public int size() {
+    return this.allItems.size();
+  }
+
+  /**
+   * Find the first key not smaller than the given key.
+   *
+   * @param key The key.
+   * @return The index of the first key not smaller than the given key.
+   */
+  private int lowerBound(String key) {
+    final int index = Arrays.binarySearch(this.keys, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+
+    int first = index;
+    while (first > 0 && this.keys[first - 1].equals(key)) {
+      first--;
+    }
+
+    return first;
+  }
+
+  /** Index entry. */
+  private static final class Entry {
+    /** The key. */
+    private final String key;
+
+    /** The rank. */
+    private final int rank;
+
+    /** The completion item. */
+    private final CompletionItem item;
+
+    /** Constructor. */
+    private Entry(String key, int rank, CompletionItem item) {
+      this.key = key;
+      this.rank = rank;
+      this.item = item;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import com.feedzai.commons.ls.languageserver.impl.cache.CachedCompletionItem;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.InsertTextFormat;
+
+/**
+ * Completion Snapshot. The immutable state of a completion service after one indexing run,
+ * published as a whole so readers need no lock. Snapshots are ordered by generation, the newest one
+ * wins when several rebuilds race.
+ *
+ * @since 0.1.0
+ */
+public final class CompletionSnapshot {
+  /** The snapshot before the first indexing run. */
+  public static final CompletionSnapshot EMPTY =
+      new CompletionSnapshot(0, null, null, List.of(), List.of());
+
+  /** The generation, increasing with every indexing run. */
+  @Getter private final long generation;
+
+  /** The indexed artifact version. */
+  @Getter private final String version;
+
+  /** The checksum of the indexed JAR file. */
+  @Getter private final String checksum;
+
+  /** The completion items. */
+  @Getter private final List<CompletionItem> completionItems;
+
+  /** The completion items, as stored in the cache. */
+  @Getter private final List<CachedCompletionItem> cachedCompletionItems;
+
+  /** Constructor. */
+  private CompletionSnapshot(
+      long generation,
+      String version,
+      String checksum,
+      List<CompletionItem> completionItems,
+      List<CachedCompletionItem> cachedCompletionItems) {
+    this.generation = generation;
+    this.version = version;
+    this.checksum = checksum;
+    this.completionItems = completionItems;
+    this.cachedCompletionItems = cachedCompletionItems;
+  }
+
+  /**
+   * Whether the snapshot holds indexed items.
+   *
+   * @return Whether the snapshot is the result of an indexing run.
+   */
+  public boolean isIndexed() {
+    return this.generation > 0;
+  }
+
+  /**
+   * Pick the newest of two snapshots.
+   *
+   * @param current The published snapshot.
+   * @param candidate The snapshot to publish.
+   * @return The candidate if it is newer, the current snapshot otherwise.
+   */
+  public static CompletionSnapshot newest(
+      CompletionSnapshot current, CompletionSnapshot candidate) {
+    return candidate.generation > current.generation ? candidate : current;
+  }
+
+  /**
+   * Completion Snapshot Builder. Collects the items of one indexing run, on a single thread.
+   *
+   * @since 0.1.0
+   */
+  public static final class Builder {
+    /** The completion items. */
+    private final List<CompletionItem> completionItems = new ArrayList<>();
+
+    /** The completion items, as stored in the cache. */
+    private final List<CachedCompletionItem> cachedCompletionItems = new ArrayList<>();
+
+    /**
+     * Add a completion item.
+     *
+     * @param label The label.
+     * @param detail The detail.
+     * @param insertText The insert text.
+     */
+    public void addCompletionItem(String label, String detail, String insertText) {
+      this.addCompletionItem(label, detail, insertText, null);
+    }
+
+    /**
+     * Add a completion item.
+     *
+     * @param label The label.
+     * @param detail The detail.
+     * @param insertText The insert text.
+     * @param schema The schema the insert text was generated from.
+     */
+    public void addCompletionItem(
+        String label, String detail, String insertText, JsonSchema schema) {
+      final CompletionItem completionItem = new CompletionItem();
+
+      completionItem.setKind(CompletionItemKind.Snippet);
+      completionItem.setLabel(label);
+      completionItem.setDetail(detail);
+      completionItem.setInsertText(insertText);
+      completionItem.setInsertTextFormat(InsertTextFormat.Snippet);
+
+      this.completionItems.add(completionItem);
+      this.cachedCompletionItems.add(new CachedCompletionItem(label, detail, insertText, schema));
+    }
+
+    /**
+     * Add a completion item restored from the cache.
+     *
+     * @param item The cached completion item.
+     */
+    public void addCompletionItem(CachedCompletionItem item) {
+      this.addCompletionItem(
+          item.getLabel(), item.getDetail(), item.getInsertText(), item.getSchema());
+    }
+
+    /**
+     * Get the completion items added so far, as stored in the cache.
+     *
+     * @return The cached completion items.
+     */
+    public List<CachedCompletionItem> getCachedCompletionItems() {
+      return List.copyOf(this.cachedCompletionItems);
+    }
+
+    /**
+     * Build the snapshot.
+     *
+     * @param generation The generation of the indexing run.
+     * @param version The indexed artifact version.
+     * @param checksum The checksum of the indexed JAR file.
+     * @return The snapshot.
+     */
+    public CompletionSnapshot build(long generation, String version, String checksum) {
+      return new CompletionSnapshot(
+          generation,
+          version,
+          checksum,
+          List.copyOf(this.completionItems),
+          List.copyOf(this.cachedCompletionItems));
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Jar Scanner. Reads class metadata from the class file format instead of loading the classes.
+ *
+ * @since 0.1.0
+ */
+public final class JarScanner {
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(JarScanner.class);
+
+  /** Class file magic number. */
+  private static final int MAGIC = 0xCAFEBABE;
+
+  /** Class file extension. */
+  private static final String CLASS_EXTENSION = ".class";
+
+  /** Constructor. */
+  private JarScanner() {}
+
+  /**
+   * Scan the classes of a JAR file.
+   *
+   * @param jarFile The JAR file.
+   * @param nameFilter The filter on binary class names, applied before any bytes are read.
+   * @return The metadata of the classes whose name matches the filter, without the classes that
+   *     cannot be read.
+   * @throws IOException If the JAR file cannot be read.
+   */
+  public static List<ClassInfo> scan(JarFile jarFile, Predicate<String> nameFilter)
+      throws IOException {
+    final List<ClassInfo> classes = new ArrayList<>();
+    final Enumeration<JarEntry> entries = jarFile.entries();
+
+    while (entries.hasMoreElements()) {
+      final JarEntry entry = entries.nextElement();
+      final String entryName = entry.getName();
+
+      if (entry.isDirectory()
+          || !entryName.endsWith(CLASS_EXTENSION)
+          || entryName.endsWith("module-info.class")
+          || entryName.endsWith("package-info.class")) {
+        continue;
+      }
+
+      final String className =
+          entryName.substring(0, entryName.length() - CLASS_EXTENSION.length()).replace('/', '.');
+
+      if (!nameFilter.test(className)) {
+        continue;
+      }
+
+      try (InputStream in = jarFile.getInputStream(entry)) {
+        classes.add(readClassInfo(in));
+      } catch (IOException | RuntimeException e) {
+        // one bad class must not cost the completions of all the others.
+        LOGGER.warn(
+            "Skipping unreadable class {} in {}: {}", className, jarFile.getName(), e.toString());
+      }
+    }
+
+    return classes;
+  }
+
+  /**
+   * Read the class metadata from a class file.
+   *
+   * @param in The class file input stream.
+   * @return The class metadata.
+   * @throws IOException If the class file is malformed.
+   */
+  static ClassInfo readClassInfo(InputStream in) throws IOException {
+    final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a class file");
+    }
+
+    data.readUnsignedShort(); // minor version
+    data.readUnsignedShort(); // major version
+
+    final int constantPoolCount = data.readUnsignedShort();
+    final String[] utf8 = new String[constantPoolCount];
+    final int[] classNameIndex = new int[constantPoolCount];
+
+    for (int i = 1; i < constantPoolCount; i++) {
+      final int tag = data.readUnsignedByte();
+      switch (tag) {
+        case 1: // Utf8
+          utf8[i] = data.readUTF();
+          break;
+        case 7: // Class
+          classNameIndex[i] = data.readUnsignedShort();
+          break;
+        case 8: // String
+        case 16: // MethodType
+        case 19: // Module
+        case 20: // Package
+          data.skipBytes(2);
+          break;
+        case 15: // MethodHandle
+          data.skipBytes(3);
+          break;
+        case 3: // Integer
+        case 4: // Float
+        case 9: // Fieldref
+        case 10: // Methodref
+        case 11: // InterfaceMethodref
+        case 12: // NameAndType
+        case 17: // Dynamic
+        case 18: // InvokeDynamic
+          data.skipBytes(4);
+          break;
+        case 5: // Long
+        case 6: // Double
+          data.skipBytes(8);
+          i++;
+          break;
+        default:
+          throw new IOException("Unknown constant pool tag: " + tag);
+      }
+    }
+
+    final int accessFlags = data.readUnsignedShort();
+    final String name = utf8[classNameIndex[data.readUnsignedShort()]].replace('/', '.');
+
+    // the fields and methods are not needed, so the rest of the class file is not read.
+    return new ClassInfo(name, accessFlags);
+  }
+}
@@ -11,12 +11,21 @@ package com.feedzai.commons.ls.languageserver.impl.completion;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
 import com.fasterxml.jackson.module.jsonSchema.JsonSchemaGenerator;
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
 import com.feedzai.commons.ls.languageserver.impl.completion.patches.JsonPatch;
+import com.feedzai.commons.ls.languageserver.impl.completion.patches.PatchSchemas;
+import com.feedzai.commons.ls.languageserver.impl.completion.patches.SnippetRenderer;
 import com.feedzai.commons.ls.languageserver.impl.maven.MavenService;
+import com.feedzai.commons.ls.languageserver.impl.maven.WorkspaceMavenService;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.lsp4j.CompletionItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,16 +34,34 @@ import org.slf4j.LoggerFactory;
  *
  * @since 0.1.0
  */
-public final class JsonPatcherService extends AbstractCompletionService {
+public final class JsonPatcherService extends AbstractCompletionService implements SchemaService {
+  /** The schema generator, shared across indexing threads. */
+  private static final JsonSchemaGenerator SCHEMA_GENERATOR =
+      new JsonSchemaGenerator(new ObjectMapper());
+
   /** Logger for this class. */
   private final Logger logger = LoggerFactory.getLogger(JsonPatcherService.class);
 
+  /** The published patch schemas, following the published completion snapshot. */
+  private final AtomicReference<PatchSchemas> patchSchemas =
+      new AtomicReference<>(PatchSchemas.EMPTY);
+
   /** Constructor. */
   public JsonPatcherService() {
-    super(
-        "json-patcher", "com.feedzai.commons.json-patcher", "json-patcher-lib", new MavenService());
+    this(new MavenService());
+  }
 
-    this.process();
+  /**
+   * Constructor.
+   *
+   * @param mavenService The local repository service, which may be shared by several services.
+   */
+  public JsonPatcherService(MavenService mavenService) {
+    super(
+        "json-patcher",
+        "com.feedzai.commons.json-patcher",
+        "json-patcher-lib",
+        new WorkspaceMavenService(mavenService));
   }
 
   /** Get the associated file extensions. */
@@ -45,55 +72,134 @@ public final class JsonPatcherService extends AbstractCompletionService {
 
   /** Process the completion items. */
   @Override
-  public void process() {
-    final String jarFilePath =
-        String.format(
-            "%s/.m2/repository/%s/%s/%4$s/json-patcher-lib-%4$s.jar",
-            System.getenv("HOME"),
-            "com/feedzai/commons",
-            "json-patcher/json-patcher-lib",
-            this.getVersion());
-
-    final List<JsonPatch> patches = createPatches(getClasses(jarFilePath));
-
-    patches.forEach(
-        patch -> this.addCompletionItem(patch.getLabel(), patch.getDetail(), patch.toSnippet()));
+  public void process(Path jarPath, CompletionSnapshot.Builder items) {
+    final String jarFile = jarPath.toString();
+
+    try (URLClassLoader classLoader = this.createClassLoader(jarFile)) {
+      final List<Class<?>> classes = getClasses(classLoader, jarFile);
+
+      final long schemaStart = System.nanoTime();
+      final List<JsonPatch> patches = createPatches(classes);
+      Metrics.get().recordSince("indexing.schemaGeneration", schemaStart);
+
+      final long snippetStart = System.nanoTime();
+      final SnippetRenderer renderer = new SnippetRenderer();
+      // paired with their patch, as parallelMap drops the patches without a snippet.
+      final List<Map.Entry<JsonPatch, String>> snippets =
+          this.parallelMap(
+              patches,
+              patch -> {
+                final String snippet = patch.toSnippet(renderer);
+                return snippet == null ? null : Map.entry(patch, snippet);
+              });
+      Metrics.get().recordSince("indexing.snippetGeneration", snippetStart);
+
+      for (Map.Entry<JsonPatch, String> snippet : snippets) {
+        final JsonPatch patch = snippet.getKey();
+        items.addCompletionItem(
+            patch.getLabel(), patch.getDetail(), snippet.getValue(), patch.getSchema());
+      }
+    } catch (IOException e) {
+      logger.error("Error processing JAR file: {}", jarFile, e);
+    }
+  }
+
+  @Override
+  protected void onIndexed(CompletionSnapshot indexed) {
+    this.patchSchemas.accumulateAndGet(
+        new PatchSchemas(indexed.getGeneration(), indexed.getCachedCompletionItems()),
+        PatchSchemas::newest);
+  }
+
+  /**
+   * Document a patch with the properties of its schema.
+   *
+   * @param completionItem The completion item.
+   * @return The Markdown documentation, or empty if the patch has no schema.
+   */
+  @Override
+  public Optional<String> getDocumentation(CompletionItem completionItem) {
+    final JsonPatch patch =
+        new JsonPatch(completionItem.getLabel(), completionItem.getDetail(), null);
+    if (patch.getDiscriminatorProperty() == null) {
+      return Optional.empty();
+    }
+
+    return this.getSchema(patch.getDiscriminatorProperty(), patch.getDiscriminatorValue())
+        .map(schema -> new JsonPatch(patch.getLabel(), patch.getDetail(), schema))
+        .map(JsonPatch::toDocumentation);
+  }
+
+  @Override
+  public List<String> getDiscriminators() {
+    return this.patchSchemas.get().getDiscriminators();
+  }
+
+  @Override
+  public List<String> getDiscriminatorValues(String discriminator) {
+    return this.patchSchemas.get().getDiscriminatorValues(discriminator);
+  }
+
+  @Override
+  public Optional<JsonSchema> getSchema(String discriminator, String value) {
+    return Optional.ofNullable(this.patchSchemas.get().getSchema(discriminator, value));
+  }
+
+  @Override
+  public JsonSchema dereference(JsonSchema schema) {
+    if (schema == null || schema.get$ref() == null) {
+      return schema;
+    }
+
+    final JsonSchema definition = this.patchSchemas.get().getDefinition(schema.get$ref());
+
+    return definition == null ? schema : definition;
+  }
+
+  @Override
+  public Optional<String> describeProperty(
+      String discriminator, String value, List<String> propertyPath) {
+    return this.patchSchemas.get().describeProperty(discriminator, value, propertyPath);
   }
 
   /**
-   * Get the patch instructions.
+   * Get the patch instructions. Public as the first indexing step, which the benchmarks measure on
+   * its own.
    *
+   * @param classLoader The class loader of the JAR file.
    * @param jarFile The JAR file path.
    * @return The patch instructions.
    */
-  private Stream<Class<?>> getClasses(String jarFile) {
-    return loadClassesFromJar(jarFile).stream()
-        .filter(cls -> cls.getName().contains("Immutable") && !cls.getName().contains("$"));
+  public List<Class<?>> getClasses(URLClassLoader classLoader, String jarFile) {
+    return loadClassesFromJar(
+        classLoader,
+        jarFile,
+        name -> name.contains("Immutable") && !name.contains("$"),
+        ClassInfo::isConcrete);
   }
 
   /**
-   * Create the patches.
+   * Create the patches, generating the schemas in parallel. Public as the second indexing step,
+   * which the benchmarks measure on its own.
    *
    * @param classes The classes.
-   * @return The patches.
+   * @return The patches, in the order of the classes.
    */
-  private List<JsonPatch> createPatches(Stream<Class<?>> classes) {
-    return classes
-        .map(
-            cls -> {
-              try {
-                JsonSchema schema = new JsonSchemaGenerator(new ObjectMapper()).generateSchema(cls);
-                String name = cls.getName();
-                String label = getLabel(name);
-                String detail = getDetail(name);
-                return new JsonPatch(label, detail, schema);
-              } catch (Exception e) {
-                logger.error("Error generating JSON schema", e);
-                return null;
-              }
-            })
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  public List<JsonPatch> createPatches(List<Class<?>> classes) {
+    return this.parallelMap(
+        classes,
+        cls -> {
+          try {
+            JsonSchema schema = SCHEMA_GENERATOR.generateSchema(cls);
+            String name = cls.getName();
+            String label = getLabel(name);
+            String detail = getDetail(name);
+            return new JsonPatch(label, detail, schema);
+          } catch (Exception e) {
+            logger.error("Error generating JSON schema", e);
+            return null;
+          }
+        });
   }
 
   /**
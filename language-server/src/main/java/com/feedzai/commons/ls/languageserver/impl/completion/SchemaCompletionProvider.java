@@ -0,0 +1,396 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.json.PositionedNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import com.feedzai.commons.ls.languageserver.impl.schema.Schemas;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.InsertTextFormat;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Schema Completion Provider. Offers the schema properties valid at the cursor, based on the syntax
+ * tree of the document and the schema of the enclosing patch.
+ *
+ * @since 0.1.0
+ */
+public final class SchemaCompletionProvider {
+  /** Constructor. */
+  private SchemaCompletionProvider() {}
+
+  /**
+   * Complete at an offset.
+   *
+   * @param textDocument The document.
+   * @param offset The cursor offset.
+   * @param schemaServices The schema services.
+   * @return The completions, or empty if the cursor is not in an object key or a scalar value.
+   */
+  public static Optional<CompletionList> complete(
+      TextDocument textDocument, int offset, List<SchemaService> schemaServices) {
+    final List<PositionedNode> path = textDocument.getSyntaxTree().pathAt(offset);
+    if (path.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final int last = path.size() - 1;
+    final SyntaxNode node = path.get(last).getNode();
+
+    if (node.getKind() == Kind.OBJECT) {
+      return Optional.of(completeKey(textDocument, offset, path, last, null, schemaServices));
+    }
+
+    if (last < 1 || path.get(last - 1).getNode().getKind() == Kind.ARRAY) {
+      return Optional.empty();
+    }
+
+    if (node.getKind() == Kind.PROPERTY) {
+      if (path.get(last).getEnd() == path.get(last).getChild(0).getEnd()) {
+        // right after a key without a colon, nothing to offer.
+        return Optional.of(new CompletionList(false, new ArrayList<>()));
+      }
+      return Optional.of(completeValue(textDocument, path.get(last), null, schemaServices));
+    }
+
+    final PositionedNode property = path.get(last - 1);
+    if (property.getNode().getKind() != Kind.PROPERTY) {
+      return Optional.empty();
+    }
+
+    if (property.getNode().getKey() == node) {
+      return Optional.of(
+          completeKey(textDocument, offset, path, last - 2, path.get(last), schemaServices));
+    }
+
+    if (!isScalar(path.get(last))) {
+      // inside an array value, whose items the schemas do not complete, so fall back to snippets.
+      return Optional.empty();
+    }
+
+    return Optional.of(completeValue(textDocument, property, path.get(last), schemaServices));
+  }
+
+  /**
+   * Complete an object key.
+   *
+   * @param textDocument The document.
+   * @param offset The cursor offset.
+   * @param path The path to the cursor.
+   * @param objectIndex The index of the object in the path.
+   * @param key The key being typed, or null.
+   * @param schemaServices The schema services.
+   * @return The completions.
+   */
+  private static CompletionList completeKey(
+      TextDocument textDocument,
+      int offset,
+      List<PositionedNode> path,
+      int objectIndex,
+      PositionedNode key,
+      List<SchemaService> schemaServices) {
+    final String prefix = getTypedPrefix(textDocument, offset, key);
+    final Range range =
+        key == null
+            ? new Range(textDocument.positionAt(offset), textDocument.positionAt(offset))
+            : new Range(
+                textDocument.positionAt(key.getStart()),
+                // an unterminated key runs to the end of the line, so only replace what was typed.
+                textDocument.positionAt(key.getNode().isClosed() ? key.getEnd() : offset));
+    final boolean quoted = key != null && key.getNode().getKind() == Kind.STRING;
+    final boolean hasValue = key != null && hasColon(path, objectIndex, key);
+    final Set<String> existing = getKeys(path.get(objectIndex).getNode(), key);
+
+    final List<CompletionItem> completionItems = new ArrayList<>();
+
+    for (SchemaService schemaService : schemaServices) {
+      final JsonSchema schema = resolveSchema(path, objectIndex, schemaService);
+
+      if (schema == null) {
+        // not inside a known object yet, so offer the discriminators to pick one.
+        for (String discriminator : schemaService.getDiscriminators()) {
+          if (!existing.contains(discriminator) && matches(discriminator, prefix)) {
+            final String values =
+                String.join(",", schemaService.getDiscriminatorValues(discriminator));
+            completionItems.add(
+                propertyItem(
+                    discriminator,
+                    "discriminator",
+                    hasValue
+                        ? quote(discriminator)
+                        : String.format("%s: \"${1|%s|}\"", quote(discriminator), values),
+                    range,
+                    quoted));
+          }
+        }
+        continue;
+      }
+
+      for (Map.Entry<String, JsonSchema> entry :
+          schema.asObjectSchema().getProperties().entrySet()) {
+        final String name = entry.getKey();
+        if (existing.contains(name) || !matches(name, prefix)) {
+          continue;
+        }
+
+        final JsonSchema propertySchema = schemaService.dereference(entry.getValue());
+        completionItems.add(
+            propertyItem(
+                name,
+                Schemas.getTypeName(propertySchema),
+                hasValue
+                    ? quote(name)
+                    : String.format(
+                        "%s: %s", quote(name), Schemas.getPlaceholder(propertySchema, 1)),
+                range,
+                quoted));
+      }
+    }
+
+    return new CompletionList(false, completionItems);
+  }
+
+  /**
+   * Complete a property value. Only discriminator values are known.
+   *
+   * @param textDocument The document.
+   * @param property The property.
+   * @param value The value being typed, or null.
+   * @param schemaServices The schema services.
+   * @return The completions.
+   */
+  private static CompletionList completeValue(
+      TextDocument textDocument,
+      PositionedNode property,
+      PositionedNode value,
+      List<SchemaService> schemaServices) {
+    final List<CompletionItem> completionItems = new ArrayList<>();
+    final SyntaxNode key = property.getNode().getKey();
+
+    if (key == null || key.getKind() != Kind.STRING) {
+      return new CompletionList(false, completionItems);
+    }
+
+    for (SchemaService schemaService : schemaServices) {
+      if (!schemaService.getDiscriminators().contains(key.getValue())) {
+        continue;
+      }
+
+      for (String discriminatorValue : schemaService.getDiscriminatorValues(key.getValue())) {
+        final CompletionItem completionItem = new CompletionItem(discriminatorValue);
+        completionItem.setKind(CompletionItemKind.EnumMember);
+        completionItem.setFilterText(quote(discriminatorValue));
+
+        if (value != null) {
+          completionItem.setTextEdit(
+              Either.forLeft(
+                  new TextEdit(
+                      new Range(
+                          textDocument.positionAt(value.getStart()),
+                          textDocument.positionAt(value.getEnd())),
+                      quote(discriminatorValue))));
+        } else {
+          completionItem.setInsertText(quote(discriminatorValue));
+        }
+
+        completionItems.add(completionItem);
+      }
+    }
+
+    return new CompletionList(false, completionItems);
+  }
+
+  /**
+   * Resolve the schema of the object at a path, starting at the nearest enclosing object that has a
+   * known discriminator value.
+   *
+   * @param path The path.
+   * @param objectIndex The index of the object in the path.
+   * @param schemaService The schema service.
+   * @return The object schema, or null if unknown.
+   */
+  private static JsonSchema resolveSchema(
+      List<PositionedNode> path, int objectIndex, SchemaService schemaService) {
+    for (int root = objectIndex; root >= 0; root--) {
+      final SyntaxNode candidate = path.get(root).getNode();
+      if (candidate.getKind() != Kind.OBJECT) {
+        continue;
+      }
+
+      final Optional<JsonSchema> rootSchema = getDiscriminatedSchema(candidate, schemaService);
+      if (rootSchema.isEmpty()) {
+        continue;
+      }
+
+      JsonSchema schema = rootSchema.get();
+      for (int i = root + 1; i <= objectIndex && schema != null; i++) {
+        final SyntaxNode step = path.get(i).getNode();
+
+        if (path.get(i - 1).getNode().getKind() == Kind.ARRAY) {
+          schema = schemaService.dereference(Schemas.getItems(schema));
+        }
+        if (step.getKind() == Kind.PROPERTY && step.getKey().getKind() == Kind.STRING) {
+          schema = schemaService.dereference(Schemas.getProperty(schema, step.getKey().getValue()));
+        }
+      }
+
+      return schema != null && schema.isObjectSchema() ? schema : null;
+    }
+
+    return null;
+  }
+
+  /**
+   * Get the schema of an object from its discriminator property.
+   *
+   * @param object The object.
+   * @param schemaService The schema service.
+   * @return The schema, if the object has a known discriminator value.
+   */
+  public static Optional<JsonSchema> getDiscriminatedSchema(
+      SyntaxNode object, SchemaService schemaService) {
+    for (String discriminator : schemaService.getDiscriminators()) {
+      final SyntaxNode value = object.getProperty(discriminator);
+      if (value != null && value.getKind() == Kind.STRING) {
+        final Optional<JsonSchema> schema =
+            schemaService.getSchema(discriminator, value.getValue());
+        if (schema.isPresent()) {
+          return schema;
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Create a property completion item.
+   *
+   * @param name The property name.
+   * @param detail The detail.
+   * @param snippet The snippet replacing the key.
+   * @param range The range of the key.
+   * @param quoted Whether the typed key starts with a quote.
+   * @return The completion item.
+   */
+  private static CompletionItem propertyItem(
+      String name, String detail, String snippet, Range range, boolean quoted) {
+    final CompletionItem completionItem = new CompletionItem(name);
+
+    completionItem.setKind(CompletionItemKind.Property);
+    completionItem.setDetail(detail);
+    completionItem.setFilterText(quoted ? quote(name) : name);
+    completionItem.setInsertTextFormat(InsertTextFormat.Snippet);
+    completionItem.setTextEdit(Either.forLeft(new TextEdit(range, snippet)));
+
+    return completionItem;
+  }
+
+  /**
+   * Get the key text typed before the cursor.
+   *
+   * @param textDocument The document.
+   * @param offset The cursor offset.
+   * @param key The key being typed, or null.
+   * @return The typed prefix, without quotes.
+   */
+  private static String getTypedPrefix(TextDocument textDocument, int offset, PositionedNode key) {
+    if (key == null) {
+      return "";
+    }
+
+    final int start = key.getNode().getKind() == Kind.STRING ? key.getStart() + 1 : key.getStart();
+
+    return start < offset ? textDocument.getContent().substring(start, offset) : "";
+  }
+
+  /**
+   * Whether the property of a key already has a colon.
+   *
+   * @param path The path.
+   * @param objectIndex The index of the object in the path.
+   * @param key The key.
+   * @return Whether the key is followed by a colon.
+   */
+  private static boolean hasColon(List<PositionedNode> path, int objectIndex, PositionedNode key) {
+    final PositionedNode property = path.get(objectIndex + 1);
+
+    return property.getEnd() > key.getEnd();
+  }
+
+  /**
+   * Get the keys of an object.
+   *
+   * @param object The object.
+   * @param exclude The key being typed, excluded from the result.
+   * @return The keys.
+   */
+  private static Set<String> getKeys(SyntaxNode object, PositionedNode exclude) {
+    final Set<String> keys = new HashSet<>();
+
+    for (int i = 0; i < object.getChildCount(); i++) {
+      final SyntaxNode key = object.getChild(i).getKey();
+      if (key != null
+          && key.getKind() == Kind.STRING
+          && (exclude == null || key != exclude.getNode())) {
+        keys.add(key.getValue());
+      }
+    }
+
+    return keys;
+  }
+
+  /**
+   * Whether a name matches the typed prefix.
+   *
+   * @param name The name.
+   * @param prefix The prefix.
+   * @return Whether the name starts with the prefix, ignoring case.
+   */
+  private static boolean matches(String name, String prefix) {
+    return name.toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Whether a node is a scalar value.
+   *
+   * @param value The value.
+   * @return Whether the value is a scalar.
+   */
+  private static boolean isScalar(PositionedNode value) {
+    final Kind kind = value.getNode().getKind();
+
+    return kind != Kind.OBJECT && kind != Kind.ARRAY && kind != Kind.PROPERTY;
+  }
+
+  /**
+   * Quote a string.
+   *
+   * @param value The string.
+   * @return The quoted string.
+   */
+  private static String quote(String value) {
+    return "\"" + value + "\"";
+  }
+}
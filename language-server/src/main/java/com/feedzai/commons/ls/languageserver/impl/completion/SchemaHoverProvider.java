@@ -0,0 +1,109 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion;
+
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.json.PositionedNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Range;
+
+/**
+ * Schema Hover Provider. Describes the object key under the cursor from the property index of the
+ * schema of the enclosing patch, so a hover never walks the schemas.
+ *
+ * @since 0.1.0
+ */
+public final class SchemaHoverProvider {
+  /** Constructor. */
+  private SchemaHoverProvider() {}
+
+  /**
+   * Hover at an offset.
+   *
+   * @param textDocument The document.
+   * @param offset The cursor offset.
+   * @param schemaServices The schema services.
+   * @return The hover, or empty if the cursor is not on a known key.
+   */
+  public static Optional<Hover> hover(
+      TextDocument textDocument, int offset, List<SchemaService> schemaServices) {
+    final List<PositionedNode> path = textDocument.getSyntaxTree().pathAt(offset);
+    final int last = path.size() - 1;
+    if (last < 1) {
+      return Optional.empty();
+    }
+
+    final PositionedNode key = path.get(last);
+    if (key.getNode().getKind() != Kind.STRING
+        || path.get(last - 1).getNode().getKey() != key.getNode()) {
+      return Optional.empty();
+    }
+
+    final Deque<String> propertyPath = new ArrayDeque<>();
+    for (int i = last - 1; i >= 0; i--) {
+      final SyntaxNode step = path.get(i).getNode();
+
+      if (step.getKind() == Kind.PROPERTY) {
+        if (step.getKey() == null || step.getKey().getKind() != Kind.STRING) {
+          return Optional.empty();
+        }
+        propertyPath.addFirst(step.getKey().getValue());
+      } else if (step.getKind() == Kind.OBJECT) {
+        final Optional<String> documentation = describe(step, propertyPath, schemaServices);
+        if (documentation.isPresent()) {
+          return Optional.of(
+              new Hover(
+                  new MarkupContent(MarkupKind.MARKDOWN, documentation.get()),
+                  new Range(
+                      textDocument.positionAt(key.getStart()),
+                      textDocument.positionAt(key.getEnd()))));
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Describe a property of an object, if the object has a known discriminator value.
+   *
+   * @param object The object.
+   * @param propertyPath The property names from the object down to the property.
+   * @param schemaServices The schema services.
+   * @return The Markdown description, or empty if the object or the property is unknown.
+   */
+  private static Optional<String> describe(
+      SyntaxNode object, Deque<String> propertyPath, List<SchemaService> schemaServices) {
+    final List<String> names = List.copyOf(propertyPath);
+
+    for (SchemaService schemaService : schemaServices) {
+      for (String discriminator : schemaService.getDiscriminators()) {
+        final SyntaxNode value = object.getProperty(discriminator);
+        if (value != null && value.getKind() == Kind.STRING) {
+          final Optional<String> documentation =
+              schemaService.describeProperty(discriminator, value.getValue(), names);
+          if (documentation.isPresent()) {
+            return documentation;
+          }
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+}
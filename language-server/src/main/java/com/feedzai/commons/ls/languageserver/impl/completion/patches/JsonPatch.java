@@ -9,9 +9,11 @@
 package com.feedzai.commons.ls.languageserver.impl.completion.patches;
 
 import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
-import java.util.Iterator;
+import com.feedzai.commons.ls.languageserver.impl.schema.Schemas;
 import java.util.Map;
 import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,8 +36,8 @@ public final class JsonPatch {
   /** patch fields. */
   @Getter private final JsonSchema schema;
 
-  /** patch placeholder. */
-  private int placeholder = 1;
+  /** patch snippet, rendered on first use. */
+  private volatile String snippet;
 
   /** Constructor. */
   public JsonPatch(String label, String detail, JsonSchema schema) {
@@ -44,89 +46,100 @@ public final class JsonPatch {
     this.schema = schema;
   }
 
-  /** Get patch snippet. */
-  public String toSnippet() {
-    return getSnippetRecursively(this.schema, new StringBuilder(), 0);
-  }
+  /**
+   * Get the discriminator property, i.e. op for patches and operator for conditions.
+   *
+   * @return discriminator property, or null if unknown.
+   */
+  public String getDiscriminatorProperty() {
+    if (this.label.contains("patch")) {
+      return "op";
+    }
 
-  /** Get patch snippet recursively. */
-  private String getSnippetRecursively(
-      JsonSchema schema, StringBuilder stringBuilder, int indentation) {
-    if (schema.isObjectSchema()) {
-      handleObjectSchema(schema, stringBuilder, indentation);
-    } else if (schema.isArraySchema()) {
-      stringBuilder.append("[");
-      stringBuilder.append(String.format("$%d", this.placeholder++));
-      stringBuilder.append("]");
-    } else if (schema.isStringSchema()) {
-      stringBuilder.append("\"");
-      stringBuilder.append(String.format("$%d", this.placeholder++));
-      stringBuilder.append("\"");
-    } else {
-      stringBuilder.append(String.format("$%d", this.placeholder++));
+    if (this.label.contains("condition")) {
+      return "operator";
     }
 
-    return stringBuilder.toString();
+    return null;
   }
 
   /**
-   * Handle object schema.
+   * Get the discriminator value, e.g. add for the add patch.
    *
-   * @param schema schema.
-   * @param stringBuilder string builder.
-   * @param indentation indentation.
+   * @return discriminator value, or null if unknown.
    */
-  private void handleObjectSchema(JsonSchema schema, StringBuilder stringBuilder, int indentation) {
-    stringBuilder.append("{\n");
+  public String getDiscriminatorValue() {
+    if (this.label.contains("patch")) {
+      return this.label.split(" ")[0].toLowerCase();
+    }
 
-    if (indentation == 0) {
-      indent(stringBuilder, indentation + 1);
-      if (this.label.contains("patch")) {
-        stringBuilder.append(
-            String.format("\"op\": \"%s\",%n", this.label.split(" ")[0].toLowerCase()));
-      }
-      if (this.label.contains("condition")) {
-        stringBuilder.append(
-            String.format("\"operator\": \"%s\",%n", toUpperSnakeCase(this.label.split(" ")[0])));
-      }
+    if (this.label.contains("condition")) {
+      return toUpperSnakeCase(this.label.split(" ")[0]);
     }
 
-    Map<String, JsonSchema> properties = schema.asObjectSchema().getProperties();
-    Iterator<String> iterator = properties.keySet().iterator();
-    while (iterator.hasNext()) {
-      final String key = iterator.next();
-      final JsonSchema value = properties.get(key);
+    return null;
+  }
 
-      final String snippet = getSnippetRecursively(value, new StringBuilder(), indentation + 1);
+  /**
+   * Get patch documentation, the discriminator and the properties of the schema in Markdown.
+   *
+   * @return the documentation.
+   */
+  public String toDocumentation() {
+    final StringBuilder stringBuilder = new StringBuilder();
 
-      indent(stringBuilder, indentation + 1);
-      if (snippet.equals(String.format("{%n%s}", "\t".repeat(indentation + 1)))) {
-        stringBuilder.append(String.format("\"%s\": {$%d}", key, this.placeholder++));
-      } else {
-        stringBuilder.append(String.format("\"%s\": %s", key, snippet));
-      }
+    if (this.getDiscriminatorProperty() != null) {
+      stringBuilder.append(
+          String.format(
+              "`\"%s\": \"%s\"`%n", this.getDiscriminatorProperty(), this.getDiscriminatorValue()));
+    }
 
-      if (iterator.hasNext()) {
-        stringBuilder.append(",");
+    if (this.schema != null && this.schema.isObjectSchema()) {
+      for (Map.Entry<String, JsonSchema> property :
+          this.schema.asObjectSchema().getProperties().entrySet()) {
+        stringBuilder.append(
+            String.format(
+                "%n- `%s`: %s", property.getKey(), Schemas.getTypeName(property.getValue())));
+
+        final Set<String> enums = Schemas.getEnums(property.getValue());
+        if (!enums.isEmpty()) {
+          stringBuilder.append(
+              enums.stream()
+                  .sorted()
+                  .map(value -> "`" + value + "`")
+                  .collect(Collectors.joining(", ", " (one of ", ")")));
+        }
       }
-
-      stringBuilder.append("\n");
     }
 
-    indent(stringBuilder, indentation);
-    stringBuilder.append("}");
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Get patch snippet, rendered on first use.
+   *
+   * @return the snippet.
+   */
+  public String toSnippet() {
+    return this.toSnippet(new SnippetRenderer());
   }
 
   /**
-   * Indent the snippet.
+   * Get patch snippet, rendered on first use with a renderer shared by other patches.
    *
-   * @param stringBuilder string builder.
-   * @param indentation indentation.
+   * @param renderer the snippet renderer.
+   * @return the snippet.
    */
-  private void indent(StringBuilder stringBuilder, int indentation) {
-    if (indentation > 0) {
-      stringBuilder.append("\t".repeat(indentation));
+  public String toSnippet(SnippetRenderer renderer) {
+    String rendered = this.snippet;
+    if (rendered == null) {
+      rendered =
+          renderer.render(
+              this.schema, this.getDiscriminatorProperty(), this.getDiscriminatorValue());
+      this.snippet = rendered;
     }
+
+    return rendered;
   }
 
   /**
@@ -0,0 +1,148 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion.patches;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import com.feedzai.commons.ls.languageserver.impl.cache.CachedCompletionItem;
+import com.feedzai.commons.ls.languageserver.impl.schema.SchemaPropertyIndex;
+import com.feedzai.commons.ls.languageserver.impl.schema.Schemas;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.Getter;
+
+/**
+ * Patch Schemas. The immutable schemas of the patches of one indexing run, with the discriminators
+ * and their values sorted up front so lookups allocate nothing.
+ *
+ * @since 0.1.0
+ */
+public final class PatchSchemas {
+  /** The schemas before the first indexing run. */
+  public static final PatchSchemas EMPTY = new PatchSchemas(0, List.of());
+
+  /** The generation of the indexing run the schemas come from. */
+  @Getter private final long generation;
+
+  /** The discriminator properties, sorted. */
+  @Getter private final List<String> discriminators;
+
+  /** The discriminator values, sorted, by discriminator property. */
+  private final Map<String, List<String>> discriminatorValues;
+
+  /** The patch schemas, by discriminator property and value. */
+  private final Map<String, Map<String, JsonSchema>> schemas;
+
+  /** The schemas referenced by the patch schemas, by id. */
+  private final Map<String, JsonSchema> definitions;
+
+  /** The descriptions of the properties of the patch schemas. */
+  private final SchemaPropertyIndex propertyIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param generation The generation of the indexing run.
+   * @param items The indexed completion items.
+   */
+  public PatchSchemas(long generation, List<CachedCompletionItem> items) {
+    final Map<String, Map<String, JsonSchema>> bySchema = new TreeMap<>();
+    final Map<String, JsonSchema> referenced = new HashMap<>();
+
+    for (CachedCompletionItem item : items) {
+      if (item.getSchema() == null) {
+        continue;
+      }
+
+      final JsonPatch patch = new JsonPatch(item.getLabel(), item.getDetail(), item.getSchema());
+      if (patch.getDiscriminatorProperty() == null) {
+        continue;
+      }
+
+      bySchema
+          .computeIfAbsent(patch.getDiscriminatorProperty(), key -> new TreeMap<>())
+          .put(patch.getDiscriminatorValue(), patch.getSchema());
+      Schemas.collectDefinitions(patch.getSchema(), referenced);
+    }
+
+    final Map<String, List<String>> values = new HashMap<>();
+    final Map<String, Map<String, JsonSchema>> immutable = new HashMap<>();
+    bySchema.forEach(
+        (discriminator, schemasByValue) -> {
+          values.put(discriminator, List.copyOf(schemasByValue.keySet()));
+          immutable.put(discriminator, Map.copyOf(schemasByValue));
+        });
+
+    this.generation = generation;
+    this.discriminators = List.copyOf(bySchema.keySet());
+    this.discriminatorValues = Map.copyOf(values);
+    this.schemas = Map.copyOf(immutable);
+    this.definitions = Map.copyOf(referenced);
+    this.propertyIndex = new SchemaPropertyIndex(this.schemas, this.definitions);
+  }
+
+  /**
+   * Get the values of a discriminator property.
+   *
+   * @param discriminator The discriminator property.
+   * @return The values, sorted.
+   */
+  public List<String> getDiscriminatorValues(String discriminator) {
+    return this.discriminatorValues.getOrDefault(discriminator, List.of());
+  }
+
+  /**
+   * Get the schema of a patch.
+   *
+   * @param discriminator The discriminator property.
+   * @param value The discriminator value.
+   * @return The schema, or null if unknown.
+   */
+  public JsonSchema getSchema(String discriminator, String value) {
+    final Map<String, JsonSchema> schemasByValue = this.schemas.get(discriminator);
+
+    return schemasByValue == null ? null : schemasByValue.get(value);
+  }
+
+  /**
+   * Get a schema referenced by the patch schemas.
+   *
+   * @param id The schema id.
+   * @return The schema, or null if unknown.
+   */
+  public JsonSchema getDefinition(String id) {
+    return this.definitions.get(id);
+  }
+
+  /**
+   * Describe a property of a patch.
+   *
+   * @param discriminator The discriminator property.
+   * @param value The discriminator value.
+   * @param propertyPath The property names from the patch down to the property.
+   * @return The Markdown description, or empty if the property is unknown.
+   */
+  public Optional<String> describeProperty(
+      String discriminator, String value, List<String> propertyPath) {
+    return this.propertyIndex.describe(discriminator, value, propertyPath);
+  }
+
+  /**
+   * Pick the newest of two schema sets.
+   *
+   * @param current The published schemas.
+   * @param candidate The schemas to publish.
+   * @return The candidate if it is newer, the current schemas otherwise.
+   */
+  public static PatchSchemas newest(PatchSchemas current, PatchSchemas candidate) {
+    return candidate.generation > current.generation ? candidate : current;
+  }
+}
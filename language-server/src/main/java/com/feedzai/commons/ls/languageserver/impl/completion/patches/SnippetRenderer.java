@@ -0,0 +1,246 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.completion.patches;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snippet Renderer. Renders the snippets of the patch schemas as a pure function of the schema. The
+ * object schemas below the root are rendered once per type and indentation into fragments with
+ * relative placeholders, which are numbered when the snippet is assembled. One renderer is shared
+ * by the patches of an indexing run, so the nested types most patches use are rendered once.
+ *
+ * @since 0.1.0
+ */
+public final class SnippetRenderer {
+  /** The line separator ending the discriminator line. */
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  /** The fragment of an array value. */
+  private static final Fragment ARRAY = new Fragment(new String[] {"[", "]"});
+
+  /** The fragment of a string value. */
+  private static final Fragment STRING = new Fragment(new String[] {"\"", "\""});
+
+  /** The fragment of any other value. */
+  private static final Fragment VALUE = new Fragment(new String[] {"", ""});
+
+  /** The rendered object fragments, by indentation and schema id. */
+  private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+
+  /**
+   * Render the snippet of a patch.
+   *
+   * @param schema The patch schema.
+   * @param discriminatorProperty The discriminator property, or null if unknown.
+   * @param discriminatorValue The discriminator value.
+   * @return The snippet.
+   */
+  public String render(JsonSchema schema, String discriminatorProperty, String discriminatorValue) {
+    final Fragment fragment =
+        schema.isObjectSchema()
+            ? renderObject(schema, 0, discriminatorProperty, discriminatorValue)
+            : renderValue(schema, 0);
+
+    return fragment.toSnippet();
+  }
+
+  /**
+   * Render the fragment of a value, reusing the fragment of an object type rendered before.
+   *
+   * @param schema The value schema.
+   * @param indentation The indentation.
+   * @return The fragment.
+   */
+  private Fragment renderValue(JsonSchema schema, int indentation) {
+    if (schema.isObjectSchema()) {
+      if (schema.getId() == null) {
+        return renderObject(schema, indentation, null, null);
+      }
+
+      // rendered outside of the map, since nested types are looked up while rendering.
+      final String key = indentation + ":" + schema.getId();
+      final Fragment cached = this.fragments.get(key);
+      if (cached != null) {
+        return cached;
+      }
+
+      final Fragment rendered = renderObject(schema, indentation, null, null);
+      final Fragment previous = this.fragments.putIfAbsent(key, rendered);
+      return previous == null ? rendered : previous;
+    }
+
+    if (schema.isArraySchema()) {
+      return ARRAY;
+    }
+
+    if (schema.isStringSchema()) {
+      return STRING;
+    }
+
+    return VALUE;
+  }
+
+  /**
+   * Render the fragment of an object, with the discriminator first at the root.
+   *
+   * @param schema The object schema.
+   * @param indentation The indentation.
+   * @param discriminatorProperty The discriminator property, or null if none.
+   * @param discriminatorValue The discriminator value.
+   * @return The fragment.
+   */
+  private Fragment renderObject(
+      JsonSchema schema, int indentation, String discriminatorProperty, String discriminatorValue) {
+    final FragmentBuilder builder = new FragmentBuilder().append("{\n");
+
+    if (indentation == 0) {
+      builder.append(indent(indentation + 1));
+      if (discriminatorProperty != null) {
+        builder
+            .append("\"")
+            .append(discriminatorProperty)
+            .append("\": \"")
+            .append(discriminatorValue)
+            .append("\",")
+            .append(LINE_SEPARATOR);
+      }
+    }
+
+    final Map<String, JsonSchema> properties = schema.asObjectSchema().getProperties();
+    final String emptyObject = "{" + LINE_SEPARATOR + indent(indentation + 1) + "}";
+    final Iterator<Map.Entry<String, JsonSchema>> iterator = properties.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<String, JsonSchema> property = iterator.next();
+      final Fragment value = renderValue(property.getValue(), indentation + 1);
+
+      builder.append(indent(indentation + 1)).append("\"").append(property.getKey()).append("\": ");
+      if (value.isLiteral(emptyObject)) {
+        builder.append("{").placeholder().append("}");
+      } else {
+        builder.append(value);
+      }
+
+      if (iterator.hasNext()) {
+        builder.append(",");
+      }
+
+      builder.append("\n");
+    }
+
+    return builder.append(indent(indentation)).append("}").build();
+  }
+
+  /**
+   * Get the indentation of a line.
+   *
+   * @param indentation The indentation level.
+   * @return The tabs.
+   */
+  private static String indent(int indentation) {
+    return indentation > 0 ? "\t".repeat(indentation) : "";
+  }
+
+  /** Snippet fragment. The literal text around placeholders numbered from one. */
+  private static final class Fragment {
+    /** The literal text, one more than the placeholders. */
+    private final String[] literals;
+
+    /** Constructor. */
+    private Fragment(String[] literals) {
+      this.literals = literals;
+    }
+
+    /**
+     * Whether the fragment is the given text, without placeholders.
+     *
+     * @param text The text.
+     * @return Whether the fragment is the text.
+     */
+    private boolean isLiteral(String text) {
+      return this.literals.length == 1 && this.literals[0].equals(text);
+    }
+
+    /**
+     * Number the placeholders from one.
+     *
+     * @return The snippet.
+     */
+    private String toSnippet() {
+      final StringBuilder stringBuilder = new StringBuilder(this.literals[0]);
+      for (int i = 1; i < this.literals.length; i++) {
+        stringBuilder.append('$').append(i).append(this.literals[i]);
+      }
+
+      return stringBuilder.toString();
+    }
+  }
+
+  /** Snippet fragment builder. */
+  private static final class FragmentBuilder {
+    /** The literal text before each placeholder. */
+    private final List<String> literals = new ArrayList<>();
+
+    /** The literal text after the last placeholder. */
+    private StringBuilder current = new StringBuilder();
+
+    /**
+     * Append literal text.
+     *
+     * @param text The text.
+     * @return This builder.
+     */
+    private FragmentBuilder append(String text) {
+      this.current.append(text);
+      return this;
+    }
+
+    /**
+     * Append a fragment, numbering its placeholders after the ones appended before.
+     *
+     * @param fragment The fragment.
+     * @return This builder.
+     */
+    private FragmentBuilder append(Fragment fragment) {
+      this.current.append(fragment.literals[0]);
+      for (int i = 1; i < fragment.literals.length; i++) {
+        this.placeholder().append(fragment.literals[i]);
+      }
+
+      return this;
+    }
+
+    /**
+     * Append a placeholder.
+     *
+     * @return This builder.
+     */
+    private FragmentBuilder placeholder() {
+      this.literals.add(this.current.toString());
+      this.current = new StringBuilder();
+      return this;
+    }
+
+    /**
+     * Build the fragment.
+     *
+     * @return The fragment.
+     */
+    private Fragment build() {
+      final String[] fragment = this.literals.toArray(new String[this.literals.size() + 1]);
+      fragment[this.literals.size()] = this.current.toString();
+      return new Fragment(fragment);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Request Executors. Creates the executor that runs the JSON-RPC message loop and the request
+ * handlers: a virtual thread per task on Java 21 and later, otherwise a bounded pool of platform
+ * threads. Virtual threads are looked up reflectively, since the server targets Java 11.
+ *
+ * @since 0.1.0
+ */
+public final class RequestExecutors {
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(RequestExecutors.class);
+
+  /** The system property disabling virtual threads. */
+  private static final String VIRTUAL_THREADS_PROPERTY = "feedzails.virtualThreads";
+
+  /** Constructor. */
+  private RequestExecutors() {}
+
+  /**
+   * Create the request executor.
+   *
+   * @return The request executor.
+   */
+  public static ExecutorService create() {
+    if (Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "true"))) {
+      try {
+        final ExecutorService executor =
+            (ExecutorService)
+                Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        LOGGER.debug("Running requests on virtual threads");
+        return executor;
+      } catch (NoSuchMethodException e) {
+        LOGGER.debug("Virtual threads are not available, running requests on platform threads");
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        LOGGER.warn("Could not create a virtual thread executor", e);
+      }
+    }
+
+    return createPlatformExecutor();
+  }
+
+  /**
+   * Create a bounded pool of daemon platform threads. The message loop holds one thread for the
+   * lifetime of the connection, so the pool has at least two.
+   *
+   * @return The platform thread executor.
+   */
+  static ExecutorService createPlatformExecutor() {
+    final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    final AtomicInteger counter = new AtomicInteger();
+
+    return new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> {
+          final Thread thread =
+              new Thread(runnable, "feedzails-request-" + counter.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+}
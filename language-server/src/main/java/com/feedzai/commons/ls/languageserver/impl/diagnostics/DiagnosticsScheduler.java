@@ -0,0 +1,209 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.diagnostics;
+
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
+import com.feedzai.commons.ls.languageserver.impl.document.DocumentStore;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Diagnostics Scheduler. Validates open documents in the background and publishes the results. Each
+ * change restarts a short per-document delay and cancels the run in flight, so only the latest
+ * version of a document is ever validated.
+ *
+ * @since 0.1.0
+ */
+public final class DiagnosticsScheduler {
+  /** The delay after the last change before validating, in milliseconds. */
+  private static final long DELAY = Long.getLong("feedzails.diagnostics.delay", 250L);
+
+  /** The validation threads. */
+  private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(DiagnosticsScheduler.class);
+
+  /** The open documents. */
+  private final DocumentStore documentStore;
+
+  /** The schema services of a document URI. */
+  private final Function<String, List<SchemaService>> schemaServices;
+
+  /** The validation executor. */
+  private final ScheduledThreadPoolExecutor executor;
+
+  /** The pending or running validations, by document URI. */
+  private final Map<String, Future<?>> validations = new ConcurrentHashMap<>();
+
+  /** The language client. */
+  private volatile LanguageClient languageClient;
+
+  /**
+   * Constructor.
+   *
+   * @param documentStore The open documents.
+   * @param schemaServices The schema services of a document URI.
+   */
+  public DiagnosticsScheduler(
+      DocumentStore documentStore, Function<String, List<SchemaService>> schemaServices) {
+    this.documentStore = documentStore;
+    this.schemaServices = schemaServices;
+
+    final AtomicInteger threads = new AtomicInteger();
+    this.executor =
+        new ScheduledThreadPoolExecutor(
+            THREADS,
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "feedzails-diagnostics-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Set the language client the diagnostics are published to.
+   *
+   * @param languageClient The language client.
+   */
+  public void setLanguageClient(LanguageClient languageClient) {
+    this.languageClient = languageClient;
+  }
+
+  /** Stop validating, cancelling the pending and running validations. */
+  public void shutdown() {
+    this.executor.shutdownNow();
+    this.validations.clear();
+  }
+
+  /**
+   * Schedule the validation of a document, replacing any validation pending for it. The validation
+   * drops itself from the pending ones once it ends.
+   *
+   * @param uri The document URI.
+   */
+  public void schedule(String uri) {
+    this.validations.compute(
+        uri,
+        (key, previous) -> {
+          if (previous != null) {
+            previous.cancel(true);
+          }
+
+          final AtomicReference<Future<?>> self = new AtomicReference<>();
+          final Future<?> validation =
+              this.executor.schedule(
+                  () -> {
+                    try {
+                      validate(uri);
+                    } finally {
+                      // runs under the map lock, so after this compute stored the validation.
+                      this.validations.computeIfPresent(
+                          uri, (same, current) -> current == self.get() ? null : current);
+                    }
+                  },
+                  DELAY,
+                  TimeUnit.MILLISECONDS);
+          self.set(validation);
+
+          return validation;
+        });
+  }
+
+  /** Schedule the validation of every open document. */
+  public void scheduleAll() {
+    this.documentStore.getUris().forEach(this::schedule);
+  }
+
+  /**
+   * Cancel the validation of a closed document and clear its diagnostics.
+   *
+   * @param uri The document URI.
+   */
+  public void clear(String uri) {
+    final Future<?> previous = this.validations.remove(uri);
+    if (previous != null) {
+      previous.cancel(true);
+    }
+
+    publish(uri, null, Collections.emptyList());
+  }
+
+  /**
+   * Validate the current version of a document.
+   *
+   * @param uri The document URI.
+   */
+  private void validate(String uri) {
+    final Optional<TextDocument> textDocument = this.documentStore.get(uri);
+    if (textDocument.isEmpty()) {
+      return;
+    }
+
+    final List<SchemaService> services = this.schemaServices.apply(uri);
+    if (services.isEmpty()) {
+      return;
+    }
+
+    final List<Diagnostic> diagnostics;
+    final long start = System.nanoTime();
+    try {
+      diagnostics = SchemaValidator.validate(textDocument.get(), services);
+      Metrics.get().recordSince("diagnostics.validate", start);
+    } catch (CancellationException e) {
+      return;
+    } catch (RuntimeException e) {
+      this.logger.error("Failed to validate {}", uri, e);
+      return;
+    }
+
+    // a newer version may have arrived while validating; its own run will publish.
+    final boolean current =
+        this.documentStore
+            .get(uri)
+            .map(latest -> latest.getVersion() == textDocument.get().getVersion())
+            .orElse(false);
+    if (current && !Thread.currentThread().isInterrupted()) {
+      publish(uri, textDocument.get().getVersion(), diagnostics);
+    }
+  }
+
+  /**
+   * Publish the diagnostics of a document.
+   *
+   * @param uri The document URI.
+   * @param version The document version, or null.
+   * @param diagnostics The diagnostics.
+   */
+  private void publish(String uri, Integer version, List<Diagnostic> diagnostics) {
+    final LanguageClient client = this.languageClient;
+    if (client != null) {
+      client.publishDiagnostics(new PublishDiagnosticsParams(uri, diagnostics, version));
+    }
+  }
+}
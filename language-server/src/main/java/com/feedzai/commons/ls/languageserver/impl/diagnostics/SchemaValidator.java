@@ -0,0 +1,321 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.diagnostics;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import com.feedzai.commons.ls.languageserver.api.SchemaService;
+import com.feedzai.commons.ls.languageserver.impl.completion.SchemaCompletionProvider;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.json.PositionedNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxError;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import com.feedzai.commons.ls.languageserver.impl.schema.Schemas;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Range;
+
+/**
+ * Schema Validator. Walks the syntax tree of a document once, checking every object with a known
+ * discriminator against its schema.
+ *
+ * @since 0.1.0
+ */
+public final class SchemaValidator {
+  /** The diagnostic source. */
+  private static final String SOURCE = "feedzails";
+
+  /** The maximum number of diagnostics per document. */
+  private static final int MAX_DIAGNOSTICS = 1000;
+
+  /** The document. */
+  private final TextDocument textDocument;
+
+  /** The schema services. */
+  private final List<SchemaService> schemaServices;
+
+  /** The diagnostics. */
+  private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+  /**
+   * Constructor.
+   *
+   * @param textDocument The document.
+   * @param schemaServices The schema services.
+   */
+  private SchemaValidator(TextDocument textDocument, List<SchemaService> schemaServices) {
+    this.textDocument = textDocument;
+    this.schemaServices = schemaServices;
+  }
+
+  /**
+   * Validate a document. Stops with a {@link CancellationException} if the current thread is
+   * interrupted.
+   *
+   * @param textDocument The document.
+   * @param schemaServices The schema services.
+   * @return The diagnostics.
+   */
+  public static List<Diagnostic> validate(
+      TextDocument textDocument, List<SchemaService> schemaServices) {
+    final SchemaValidator validator = new SchemaValidator(textDocument, schemaServices);
+
+    if (textDocument.getSyntaxTree() == null) {
+      return validator.diagnostics;
+    }
+
+    for (SyntaxError syntaxError : textDocument.getSyntaxTree().getErrors()) {
+      validator.report(
+          syntaxError.getStart(),
+          syntaxError.getEnd(),
+          DiagnosticSeverity.Error,
+          syntaxError.getMessage());
+    }
+
+    validator.walk(textDocument.getSyntaxTree().getRoot());
+
+    return validator.diagnostics;
+  }
+
+  /**
+   * Walk a node without a known schema, looking for objects with a discriminator.
+   *
+   * @param positionedNode The node.
+   */
+  private void walk(PositionedNode positionedNode) {
+    checkCancelled();
+
+    final SyntaxNode node = positionedNode.getNode();
+    if (node.getKind() == Kind.OBJECT) {
+      final Optional<JsonSchema> schema = getDiscriminatedSchema(positionedNode);
+      if (schema.isPresent()) {
+        validateObject(positionedNode, schema.get());
+        return;
+      }
+    }
+
+    for (int i = 0; i < node.getChildCount(); i++) {
+      walk(positionedNode.getChild(i));
+    }
+  }
+
+  /**
+   * Get the schema of an object from its discriminator, reporting unknown discriminator values.
+   *
+   * @param object The object.
+   * @return The schema, if known.
+   */
+  private Optional<JsonSchema> getDiscriminatedSchema(PositionedNode object) {
+    for (SchemaService schemaService : this.schemaServices) {
+      final Optional<JsonSchema> schema =
+          SchemaCompletionProvider.getDiscriminatedSchema(object.getNode(), schemaService);
+      if (schema.isPresent()) {
+        return schema;
+      }
+    }
+
+    for (int i = 0; i < object.getNode().getChildCount(); i++) {
+      final PositionedNode property = object.getChild(i);
+      final SyntaxNode key = property.getNode().getKey();
+      final SyntaxNode value = property.getNode().getPropertyValue();
+
+      if (key == null
+          || key.getKind() != Kind.STRING
+          || value == null
+          || value.getKind() != Kind.STRING) {
+        continue;
+      }
+
+      for (SchemaService schemaService : this.schemaServices) {
+        if (schemaService.getDiscriminators().contains(key.getValue())) {
+          final PositionedNode valueNode = property.getChild(1);
+          report(
+              valueNode.getStart(),
+              valueNode.getEnd(),
+              DiagnosticSeverity.Error,
+              String.format(
+                  "Unknown %s \"%s\", expected one of %s",
+                  key.getValue(),
+                  value.getValue(),
+                  schemaService.getDiscriminatorValues(key.getValue())));
+          return Optional.empty();
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Validate a value against a schema.
+   *
+   * @param positionedNode The value.
+   * @param schema The schema, or null if unknown.
+   */
+  private void validateValue(PositionedNode positionedNode, JsonSchema schema) {
+    checkCancelled();
+
+    final SyntaxNode node = positionedNode.getNode();
+    if (schema == null || node.getKind() == Kind.NULL || node.getKind() == Kind.INVALID) {
+      walk(positionedNode);
+      return;
+    }
+
+    if (schema.isObjectSchema() && node.getKind() == Kind.OBJECT) {
+      if (schema.asObjectSchema().getProperties().isEmpty()) {
+        // maps and abstract types have no properties to check against.
+        walk(positionedNode);
+      } else {
+        validateObject(positionedNode, schema);
+      }
+    } else if (schema.isArraySchema() && node.getKind() == Kind.ARRAY) {
+      final JsonSchema items = dereference(Schemas.getItems(schema));
+      for (int i = 0; i < node.getChildCount(); i++) {
+        validateValue(positionedNode.getChild(i), items);
+      }
+    } else if (!matchesType(node.getKind(), schema)) {
+      report(
+          positionedNode.getStart(),
+          positionedNode.getEnd(),
+          DiagnosticSeverity.Error,
+          String.format("Expected %s", Schemas.getTypeName(schema)));
+    } else if (!Schemas.getEnums(schema).isEmpty()
+        && !Schemas.getEnums(schema).contains(node.getValue())) {
+      report(
+          positionedNode.getStart(),
+          positionedNode.getEnd(),
+          DiagnosticSeverity.Error,
+          String.format("Expected one of %s", Schemas.getEnums(schema)));
+    }
+  }
+
+  /**
+   * Validate an object against an object schema.
+   *
+   * @param object The object.
+   * @param schema The object schema.
+   */
+  private void validateObject(PositionedNode object, JsonSchema schema) {
+    for (int i = 0; i < object.getNode().getChildCount(); i++) {
+      final PositionedNode property = object.getChild(i);
+      final SyntaxNode key = property.getNode().getKey();
+
+      if (key == null || key.getKind() != Kind.STRING) {
+        continue;
+      }
+
+      final JsonSchema propertySchema = Schemas.getProperty(schema, key.getValue());
+      if (propertySchema == null && !isDiscriminator(key.getValue())) {
+        final PositionedNode keyNode = property.getChild(0);
+        report(
+            keyNode.getStart(),
+            keyNode.getEnd(),
+            DiagnosticSeverity.Warning,
+            String.format("Unknown property \"%s\"", key.getValue()));
+        continue;
+      }
+
+      if (propertySchema != null && property.getNode().getPropertyValue() != null) {
+        validateValue(property.getChild(1), dereference(propertySchema));
+      }
+    }
+  }
+
+  /**
+   * Whether a property is a discriminator, which selects the schema rather than being part of it.
+   *
+   * @param name The property name.
+   * @return Whether the property is a discriminator.
+   */
+  private boolean isDiscriminator(String name) {
+    for (SchemaService schemaService : this.schemaServices) {
+      if (schemaService.getDiscriminators().contains(name)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Whether a scalar node matches the type of a schema.
+   *
+   * @param kind The node kind.
+   * @param schema The schema.
+   * @return Whether the node matches.
+   */
+  private static boolean matchesType(Kind kind, JsonSchema schema) {
+    if (schema.isStringSchema()) {
+      return kind == Kind.STRING;
+    }
+    if (schema.isNumberSchema() || schema.isIntegerSchema()) {
+      return kind == Kind.NUMBER;
+    }
+    if (schema.isBooleanSchema()) {
+      return kind == Kind.BOOLEAN;
+    }
+    if (schema.isObjectSchema()) {
+      return kind == Kind.OBJECT;
+    }
+    if (schema.isArraySchema()) {
+      return kind == Kind.ARRAY;
+    }
+
+    return true;
+  }
+
+  /**
+   * Dereference a schema with the first schema service that knows it.
+   *
+   * @param schema The schema.
+   * @return The dereferenced schema.
+   */
+  private JsonSchema dereference(JsonSchema schema) {
+    JsonSchema dereferenced = schema;
+    for (SchemaService schemaService : this.schemaServices) {
+      dereferenced = schemaService.dereference(dereferenced);
+    }
+
+    return dereferenced;
+  }
+
+  /**
+   * Report a diagnostic.
+   *
+   * @param start The start offset.
+   * @param end The end offset.
+   * @param severity The severity.
+   * @param message The message.
+   */
+  private void report(int start, int end, DiagnosticSeverity severity, String message) {
+    if (this.diagnostics.size() >= MAX_DIAGNOSTICS) {
+      return;
+    }
+
+    final Diagnostic diagnostic =
+        new Diagnostic(
+            new Range(this.textDocument.positionAt(start), this.textDocument.positionAt(end)),
+            message,
+            severity,
+            SOURCE);
+
+    this.diagnostics.add(diagnostic);
+  }
+
+  /** Stop if the validation was cancelled. */
+  private static void checkCancelled() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException();
+    }
+  }
+}
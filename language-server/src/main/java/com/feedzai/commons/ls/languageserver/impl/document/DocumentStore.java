@@ -0,0 +1,107 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Document Store. Keeps the open documents, applying incremental changes.
+ *
+ * @since 0.1.0
+ */
+public final class DocumentStore {
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(DocumentStore.class);
+
+  /** The open documents, by URI. */
+  private final Map<String, TextDocument> documents = new ConcurrentHashMap<>();
+
+  /**
+   * Open a document.
+   *
+   * @param textDocumentItem The document.
+   * @return The opened document.
+   */
+  public TextDocument open(TextDocumentItem textDocumentItem) {
+    final TextDocument textDocument =
+        TextDocument.of(
+            textDocumentItem.getUri(),
+            textDocumentItem.getLanguageId(),
+            textDocumentItem.getVersion(),
+            textDocumentItem.getText());
+
+    this.documents.put(textDocument.getUri(), textDocument);
+
+    return textDocument;
+  }
+
+  /**
+   * Change a document.
+   *
+   * @param identifier The document identifier.
+   * @param changes The content changes, applied in order.
+   * @return The changed document, if open.
+   */
+  public Optional<TextDocument> change(
+      VersionedTextDocumentIdentifier identifier, List<TextDocumentContentChangeEvent> changes) {
+    final TextDocument textDocument =
+        this.documents.computeIfPresent(
+            identifier.getUri(),
+            (uri, current) -> {
+              TextDocument changed = current;
+              for (TextDocumentContentChangeEvent change : changes) {
+                changed = changed.apply(identifier.getVersion(), change);
+              }
+              return changed;
+            });
+
+    if (textDocument == null) {
+      this.logger.warn("Change to a document that is not open: {}", identifier.getUri());
+    }
+
+    return Optional.ofNullable(textDocument);
+  }
+
+  /**
+   * Close a document.
+   *
+   * @param uri The document URI.
+   */
+  public void close(String uri) {
+    this.documents.remove(uri);
+  }
+
+  /**
+   * Get the URIs of the open documents.
+   *
+   * @return The document URIs.
+   */
+  public Set<String> getUris() {
+    return Set.copyOf(this.documents.keySet());
+  }
+
+  /**
+   * Get an open document.
+   *
+   * @param uri The document URI.
+   * @return The document, if open.
+   */
+  public Optional<TextDocument> get(String uri) {
+    return Optional.ofNullable(this.documents.get(uri));
+  }
+}
@@ -0,0 +1,451 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rope. An immutable balanced tree of text chunks, where every node keeps its length and line break
+ * count, so edits and line/offset conversions cost O(log n) instead of a copy of the whole text.
+ *
+ * @since 0.1.0
+ */
+public final class Rope {
+  /** The maximum leaf length. */
+  private static final int LEAF_SIZE = 1024;
+
+  /** The maximum depth before the tree is rebalanced. */
+  private static final int MAX_DEPTH = 48;
+
+  /** The empty rope. */
+  private static final Rope EMPTY = new Rope("");
+
+  /** The leaf text, or null for inner nodes. */
+  private final String text;
+
+  /** The left child, or null for leaves. */
+  private final Rope left;
+
+  /** The right child, or null for leaves. */
+  private final Rope right;
+
+  /** The text length. */
+  private final int length;
+
+  /** The number of line breaks. */
+  private final int lineBreaks;
+
+  /** The tree depth. */
+  private final int depth;
+
+  /**
+   * Leaf constructor.
+   *
+   * @param text The leaf text.
+   */
+  private Rope(String text) {
+    this.text = text;
+    this.left = null;
+    this.right = null;
+    this.length = text.length();
+    this.lineBreaks = countLineBreaks(text);
+    this.depth = 0;
+  }
+
+  /**
+   * Inner node constructor.
+   *
+   * @param left The left child.
+   * @param right The right child.
+   */
+  private Rope(Rope left, Rope right) {
+    this.text = null;
+    this.left = left;
+    this.right = right;
+    this.length = left.length + right.length;
+    this.lineBreaks = left.lineBreaks + right.lineBreaks;
+    this.depth = Math.max(left.depth, right.depth) + 1;
+  }
+
+  /**
+   * Create a rope.
+   *
+   * @param text The text.
+   * @return The rope.
+   */
+  public static Rope of(String text) {
+    if (text.isEmpty()) {
+      return EMPTY;
+    }
+
+    final List<Rope> leaves = new ArrayList<>();
+    for (int start = 0; start < text.length(); start += LEAF_SIZE) {
+      leaves.add(new Rope(text.substring(start, Math.min(text.length(), start + LEAF_SIZE))));
+    }
+
+    return build(leaves, 0, leaves.size());
+  }
+
+  /**
+   * Get the text length.
+   *
+   * @return The text length.
+   */
+  public int length() {
+    return this.length;
+  }
+
+  /**
+   * Get the number of lines.
+   *
+   * @return The number of lines.
+   */
+  public int lineCount() {
+    return this.lineBreaks + 1;
+  }
+
+  /**
+   * Get the character at an offset.
+   *
+   * @param offset The offset.
+   * @return The character.
+   */
+  public char charAt(int offset) {
+    Rope node = this;
+    int index = offset;
+
+    while (node.text == null) {
+      if (index < node.left.length) {
+        node = node.left;
+      } else {
+        index -= node.left.length;
+        node = node.right;
+      }
+    }
+
+    return node.text.charAt(index);
+  }
+
+  /**
+   * Replace a range of text.
+   *
+   * @param start The range start offset, inclusive.
+   * @param end The range end offset, exclusive.
+   * @param replacement The replacement text.
+   * @return The edited rope.
+   */
+  public Rope replace(int start, int end, String replacement) {
+    final Rope[] head = split(this, start);
+    final Rope[] tail = split(head[1], end - start);
+
+    final Rope edited = concat(concat(head[0], of(replacement)), tail[1]);
+
+    return edited.depth > MAX_DEPTH ? rebalance(edited) : edited;
+  }
+
+  /**
+   * Get the offset at which a line starts.
+   *
+   * @param line The zero based line.
+   * @return The line start offset, or the text length if the line does not exist.
+   */
+  public int lineStart(int line) {
+    if (line <= 0) {
+      return 0;
+    }
+
+    if (line > this.lineBreaks) {
+      return this.length;
+    }
+
+    Rope node = this;
+    int remaining = line;
+    int offset = 0;
+
+    while (node.text == null) {
+      if (remaining <= node.left.lineBreaks) {
+        node = node.left;
+      } else {
+        remaining -= node.left.lineBreaks;
+        offset += node.left.length;
+        node = node.right;
+      }
+    }
+
+    int index = -1;
+    for (int i = 0; i < remaining; i++) {
+      index = node.text.indexOf('\n', index + 1);
+    }
+
+    return offset + index + 1;
+  }
+
+  /**
+   * Get the line containing an offset.
+   *
+   * @param offset The offset.
+   * @return The zero based line.
+   */
+  public int lineAt(int offset) {
+    Rope node = this;
+    int index = Math.min(Math.max(offset, 0), this.length);
+    int line = 0;
+
+    while (node.text == null) {
+      if (index < node.left.length) {
+        node = node.left;
+      } else {
+        index -= node.left.length;
+        line += node.left.lineBreaks;
+        node = node.right;
+      }
+    }
+
+    for (int i = 0; i < index; i++) {
+      if (node.text.charAt(i) == '\n') {
+        line++;
+      }
+    }
+
+    return line;
+  }
+
+  /**
+   * Get a read-only character sequence view of the rope, optimized for sequential access. The view
+   * is not thread-safe and must not be shared.
+   *
+   * @return The character sequence.
+   */
+  public CharSequence asCharSequence() {
+    return new Cursor(this);
+  }
+
+  /**
+   * Get a range of text.
+   *
+   * @param start The range start offset, inclusive.
+   * @param end The range end offset, exclusive.
+   * @return The text.
+   */
+  public String substring(int start, int end) {
+    final StringBuilder stringBuilder = new StringBuilder(end - start);
+    append(this, start, end, stringBuilder);
+    return stringBuilder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return substring(0, this.length);
+  }
+
+  /**
+   * Append a range of a rope to a string builder.
+   *
+   * @param node The rope.
+   * @param start The range start offset, relative to the rope.
+   * @param end The range end offset, relative to the rope.
+   * @param stringBuilder The string builder.
+   */
+  private static void append(Rope node, int start, int end, StringBuilder stringBuilder) {
+    if (start >= end) {
+      return;
+    }
+
+    if (node.text != null) {
+      stringBuilder.append(node.text, start, end);
+      return;
+    }
+
+    final int leftLength = node.left.length;
+    append(node.left, start, Math.min(end, leftLength), stringBuilder);
+    append(
+        node.right, Math.max(start - leftLength, 0), Math.max(end - leftLength, 0), stringBuilder);
+  }
+
+  /**
+   * Split a rope at an offset.
+   *
+   * @param node The rope.
+   * @param offset The offset.
+   * @return The text before and after the offset.
+   */
+  private static Rope[] split(Rope node, int offset) {
+    if (offset <= 0) {
+      return new Rope[] {EMPTY, node};
+    }
+
+    if (offset >= node.length) {
+      return new Rope[] {node, EMPTY};
+    }
+
+    if (node.text != null) {
+      return new Rope[] {
+        new Rope(node.text.substring(0, offset)), new Rope(node.text.substring(offset))
+      };
+    }
+
+    if (offset < node.left.length) {
+      final Rope[] parts = split(node.left, offset);
+      return new Rope[] {parts[0], concat(parts[1], node.right)};
+    }
+
+    final Rope[] parts = split(node.right, offset - node.left.length);
+    return new Rope[] {concat(node.left, parts[0]), parts[1]};
+  }
+
+  /**
+   * Concatenate two ropes, merging small leaves.
+   *
+   * @param left The left rope.
+   * @param right The right rope.
+   * @return The concatenated rope.
+   */
+  private static Rope concat(Rope left, Rope right) {
+    if (left.length == 0) {
+      return right;
+    }
+
+    if (right.length == 0) {
+      return left;
+    }
+
+    if (left.text != null && right.text != null && left.length + right.length <= LEAF_SIZE) {
+      return new Rope(left.text + right.text);
+    }
+
+    return new Rope(left, right);
+  }
+
+  /**
+   * Rebuild a balanced rope from the leaves of a rope.
+   *
+   * @param rope The rope.
+   * @return The balanced rope.
+   */
+  private static Rope rebalance(Rope rope) {
+    final List<Rope> leaves = new ArrayList<>();
+    collectLeaves(rope, leaves);
+    return build(leaves, 0, leaves.size());
+  }
+
+  /**
+   * Collect the leaves of a rope, in order.
+   *
+   * @param node The rope.
+   * @param leaves The leaves.
+   */
+  private static void collectLeaves(Rope node, List<Rope> leaves) {
+    if (node.text != null) {
+      if (node.length > 0) {
+        leaves.add(node);
+      }
+      return;
+    }
+
+    collectLeaves(node.left, leaves);
+    collectLeaves(node.right, leaves);
+  }
+
+  /**
+   * Build a balanced rope from a range of leaves.
+   *
+   * @param leaves The leaves.
+   * @param from The range start, inclusive.
+   * @param to The range end, exclusive.
+   * @return The balanced rope.
+   */
+  private static Rope build(List<Rope> leaves, int from, int to) {
+    if (to - from == 0) {
+      return EMPTY;
+    }
+
+    if (to - from == 1) {
+      return leaves.get(from);
+    }
+
+    final int middle = (from + to) >>> 1;
+    return new Rope(build(leaves, from, middle), build(leaves, middle, to));
+  }
+
+  /**
+   * Count the line breaks of a text.
+   *
+   * @param text The text.
+   * @return The number of line breaks.
+   */
+  private static int countLineBreaks(String text) {
+    int count = 0;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Character sequence view of a rope, caching the last visited leaf. */
+  private static final class Cursor implements CharSequence {
+    /** The rope. */
+    private final Rope rope;
+
+    /** The cached leaf. */
+    private Rope leaf;
+
+    /** The cached leaf start offset. */
+    private int leafStart;
+
+    /** Constructor. */
+    private Cursor(Rope rope) {
+      this.rope = rope;
+    }
+
+    @Override
+    public int length() {
+      return this.rope.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (this.leaf == null
+          || index < this.leafStart
+          || index >= this.leafStart + this.leaf.length) {
+        if (index < 0 || index >= this.rope.length) {
+          throw new IndexOutOfBoundsException(index);
+        }
+
+        Rope node = this.rope;
+        int start = 0;
+        while (node.text == null) {
+          if (index - start < node.left.length) {
+            node = node.left;
+          } else {
+            start += node.left.length;
+            node = node.right;
+          }
+        }
+
+        this.leaf = node;
+        this.leafStart = start;
+      }
+
+      return this.leaf.text.charAt(index - this.leafStart);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return this.rope.substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return this.rope.toString();
+    }
+  }
+}
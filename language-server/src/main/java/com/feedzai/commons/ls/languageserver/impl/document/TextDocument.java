@@ -0,0 +1,146 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.document;
+
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxTree;
+import lombok.Getter;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+
+/**
+ * Text Document. An immutable version of an open document.
+ *
+ * @since 0.1.0
+ */
+public final class TextDocument {
+  /** The document URI. */
+  @Getter private final String uri;
+
+  /** The document language id. */
+  @Getter private final String languageId;
+
+  /** The document version. */
+  @Getter private final int version;
+
+  /** The document content. */
+  @Getter private final Rope content;
+
+  /** The JSON syntax tree, or null if the document is not JSON. */
+  @Getter private final SyntaxTree syntaxTree;
+
+  /** Constructor. */
+  public TextDocument(
+      String uri, String languageId, int version, Rope content, SyntaxTree syntaxTree) {
+    this.uri = uri;
+    this.languageId = languageId;
+    this.version = version;
+    this.content = content;
+    this.syntaxTree = syntaxTree;
+  }
+
+  /**
+   * Create a document, parsing it if it is a JSON document.
+   *
+   * @param uri The document URI.
+   * @param languageId The document language id.
+   * @param version The document version.
+   * @param text The document text.
+   * @return The document.
+   */
+  public static TextDocument of(String uri, String languageId, int version, String text) {
+    final Rope content = Rope.of(text);
+    final SyntaxTree syntaxTree =
+        isJson(uri, languageId) ? SyntaxTree.parse(content.asCharSequence()) : null;
+
+    return new TextDocument(uri, languageId, version, content, syntaxTree);
+  }
+
+  /**
+   * Get the document text.
+   *
+   * @return The document text.
+   */
+  public String getText() {
+    return this.content.toString();
+  }
+
+  /**
+   * Get the offset of a position, clamped to the line length, before its line break.
+   *
+   * @param position The position.
+   * @return The offset.
+   */
+  public int offsetAt(Position position) {
+    final int lineStart = this.content.lineStart(position.getLine());
+
+    int lineEnd = this.content.length();
+    if (position.getLine() + 1 < this.content.lineCount()) {
+      lineEnd = this.content.lineStart(position.getLine() + 1) - 1;
+      if (lineEnd > lineStart && this.content.charAt(lineEnd - 1) == '\r') {
+        lineEnd--;
+      }
+    }
+
+    return Math.min(lineStart + Math.max(position.getCharacter(), 0), lineEnd);
+  }
+
+  /**
+   * Get the position of an offset.
+   *
+   * @param offset The offset.
+   * @return The position.
+   */
+  public Position positionAt(int offset) {
+    final int clamped = Math.min(Math.max(offset, 0), this.content.length());
+    final int line = this.content.lineAt(clamped);
+
+    return new Position(line, clamped - this.content.lineStart(line));
+  }
+
+  /**
+   * Apply a content change.
+   *
+   * @param version The new document version.
+   * @param change The content change.
+   * @return The changed document.
+   */
+  public TextDocument apply(int version, TextDocumentContentChangeEvent change) {
+    final Range range = change.getRange();
+
+    if (range == null) {
+      return of(this.uri, this.languageId, version, change.getText());
+    }
+
+    final int start = offsetAt(range.getStart());
+    final int end = Math.max(start, offsetAt(range.getEnd()));
+    final Rope changed = this.content.replace(start, end, change.getText());
+
+    return new TextDocument(
+        this.uri,
+        this.languageId,
+        version,
+        changed,
+        this.syntaxTree == null
+            ? null
+            : this.syntaxTree.update(
+                changed.asCharSequence(), start, end, change.getText().length()));
+  }
+
+  /**
+   * Whether a document is a JSON document.
+   *
+   * @param uri The document URI.
+   * @param languageId The document language id.
+   * @return Whether the document is JSON.
+   */
+  private static boolean isJson(String uri, String languageId) {
+    return "json".equals(languageId) || "jsonc".equals(languageId) || uri.endsWith(".json");
+  }
+}
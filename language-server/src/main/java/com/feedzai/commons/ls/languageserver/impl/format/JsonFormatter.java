@@ -0,0 +1,412 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.format;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.feedzai.commons.ls.languageserver.impl.document.Rope;
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.json.JsonFactories;
+import com.feedzai.commons.ls.languageserver.impl.json.PositionedNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxTree;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextEdit;
+
+/**
+ * JSON Formatter. Streams the tokens of a patch file and lays them out like the patch snippets, one
+ * property or item per line indented with tabs, returning only the whitespace edits that differ
+ * from the document.
+ *
+ * <p>Tokens are never rewritten, so numbers and escapes keep their spelling, and the whitespace
+ * around comments is left as it is.
+ *
+ * @since 0.1.0
+ */
+public final class JsonFormatter {
+  /** The indentation of one level, as in the patch snippets. */
+  private static final String INDENTATION = "\t";
+
+  /** Constructor. */
+  private JsonFormatter() {}
+
+  /**
+   * Format a document.
+   *
+   * @param textDocument The document.
+   * @return The edits, empty if the document is not valid JSON.
+   */
+  public static List<TextEdit> format(TextDocument textDocument) {
+    return format(textDocument, 0, textDocument.getContent().length());
+  }
+
+  /**
+   * Format the nodes of a document within a range. Only the innermost object or array holding the
+   * range is parsed, and only the whitespace touching the range is edited.
+   *
+   * @param textDocument The document.
+   * @param start The range start offset.
+   * @param end The range end offset.
+   * @return The edits, empty if the nodes are not valid JSON.
+   */
+  public static List<TextEdit> format(TextDocument textDocument, int start, int end) {
+    final List<PositionedNode> containers = getContainers(textDocument.getSyntaxTree(), start, end);
+    if (containers.isEmpty()) {
+      return List.of();
+    }
+
+    final PositionedNode container = containers.get(containers.size() - 1);
+    if (!container.getNode().isClosed()) {
+      return List.of();
+    }
+
+    final Layout layout =
+        new Layout(
+            textDocument,
+            textDocument.getContent().substring(container.getStart(), container.getEnd()),
+            container.getStart(),
+            start,
+            end);
+
+    try (JsonParser parser = JsonFactories.TOLERANT.createParser(layout.text)) {
+      int depth = containers.size() - 1;
+      JsonToken previous = null;
+      int previousEnd = 0;
+
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        final int tokenStart = (int) parser.currentTokenLocation().getCharOffset();
+        if (token.isStructEnd()) {
+          depth--;
+        }
+        if (previous != null) {
+          layout.gap(previousEnd, tokenStart, previous, token, depth);
+        }
+        if (container.getStart() + tokenStart > end) {
+          break;
+        }
+        if (token.isStructStart()) {
+          depth++;
+        }
+
+        previous = token;
+        previousEnd = tokenEnd(layout.text, tokenStart, token, parser);
+      }
+    } catch (IOException e) {
+      // not valid JSON, likely being edited, so leave it alone rather than format half of it.
+      return List.of();
+    }
+
+    return layout.edits;
+  }
+
+  /**
+   * Format the object or array closed by a bracket that was just typed.
+   *
+   * @param textDocument The document.
+   * @param offset The offset right after the bracket.
+   * @return The edits, empty if no object or array ends at the offset.
+   */
+  public static List<TextEdit> formatClosed(TextDocument textDocument, int offset) {
+    final List<PositionedNode> containers =
+        getContainers(textDocument.getSyntaxTree(), offset - 1, offset);
+    if (containers.isEmpty()) {
+      return List.of();
+    }
+
+    final PositionedNode closed = containers.get(containers.size() - 1);
+    if (closed.getEnd() != offset) {
+      return List.of();
+    }
+
+    return format(textDocument, closed.getStart(), closed.getEnd());
+  }
+
+  /**
+   * Get the objects and arrays holding a range, from the root down.
+   *
+   * @param syntaxTree The syntax tree, or null if the document is not JSON.
+   * @param start The range start offset.
+   * @param end The range end offset.
+   * @return The containers, empty if the root is not an object or an array.
+   */
+  private static List<PositionedNode> getContainers(SyntaxTree syntaxTree, int start, int end) {
+    final List<PositionedNode> containers = new ArrayList<>();
+    if (syntaxTree == null || syntaxTree.getRoot() == null || !isContainer(syntaxTree.getRoot())) {
+      return containers;
+    }
+
+    PositionedNode container = syntaxTree.getRoot();
+    while (container != null) {
+      containers.add(container);
+
+      final PositionedNode parent = container;
+      container = null;
+      for (int i = 0; i < parent.getNode().getChildCount(); i++) {
+        PositionedNode child = parent.getChild(i);
+        if (child.getNode().getKind() == Kind.PROPERTY) {
+          if (child.getNode().getChildCount() < 2) {
+            continue;
+          }
+          child = child.getChild(1);
+        }
+        if (isContainer(child) && child.getStart() <= start && end <= child.getEnd()) {
+          container = child;
+          break;
+        }
+      }
+    }
+
+    return containers;
+  }
+
+  /**
+   * Whether a node is an object or an array.
+   *
+   * @param positionedNode The node.
+   * @return Whether the node is an object or an array.
+   */
+  private static boolean isContainer(PositionedNode positionedNode) {
+    return positionedNode.getNode().getKind() == Kind.OBJECT
+        || positionedNode.getNode().getKind() == Kind.ARRAY;
+  }
+
+  /**
+   * Get the end of a token. Jackson reads past the colon of a field name and defers reading
+   * strings, so the end of strings is found in the text.
+   *
+   * @param text The text.
+   * @param start The token start offset.
+   * @param token The token.
+   * @param parser The parser, positioned at the token.
+   * @return The token end offset, exclusive.
+   * @throws IOException If the token cannot be read.
+   */
+  private static int tokenEnd(String text, int start, JsonToken token, JsonParser parser)
+      throws IOException {
+    if (token == JsonToken.FIELD_NAME || token == JsonToken.VALUE_STRING) {
+      int index = start + 1;
+      while (text.charAt(index) != '"') {
+        index += text.charAt(index) == '\\' ? 2 : 1;
+      }
+      return index + 1;
+    }
+
+    if (token.isStructStart() || token.isStructEnd()) {
+      return start + 1;
+    }
+
+    return start + parser.getTextLength();
+  }
+
+  /**
+   * Get the line separator of a document, or the one of the snippets if it has a single line.
+   *
+   * @param content The document content.
+   * @return The line separator.
+   */
+  private static String getLineSeparator(Rope content) {
+    if (content.lineCount() < 2) {
+      return System.lineSeparator();
+    }
+
+    final int lineBreak = content.lineStart(1) - 1;
+
+    return lineBreak > 0 && content.charAt(lineBreak - 1) == '\r' ? "\r\n" : "\n";
+  }
+
+  /** The layout of the gaps between the tokens of a container, collected as edits. */
+  private static final class Layout {
+    /** The text of the container. */
+    private final String text;
+
+    /** The offset of the container in the document. */
+    private final int offset;
+
+    /** The start offset of the formatted range in the document. */
+    private final int rangeStart;
+
+    /** The end offset of the formatted range in the document. */
+    private final int rangeEnd;
+
+    /** The line separator of the document. */
+    private final String lineSeparator;
+
+    /** The edits. */
+    private final List<TextEdit> edits = new ArrayList<>();
+
+    /** The document. */
+    private final TextDocument textDocument;
+
+    /** The offset in the container of the first edit, where line counting starts. */
+    private int anchor;
+
+    /** The document position of the first edit, or null before the first edit. */
+    private Position anchorPosition;
+
+    /** The offset in the container up to which lines were counted. */
+    private int scanned;
+
+    /** The line reached by the counting, relative to the anchor. */
+    private int line;
+
+    /** The offset in the container at which that line starts. */
+    private int lineStart;
+
+    /**
+     * Constructor.
+     *
+     * @param textDocument The document.
+     * @param text The text of the container.
+     * @param offset The offset of the container in the document.
+     * @param rangeStart The start offset of the formatted range in the document.
+     * @param rangeEnd The end offset of the formatted range in the document.
+     */
+    Layout(TextDocument textDocument, String text, int offset, int rangeStart, int rangeEnd) {
+      this.textDocument = textDocument;
+      this.text = text;
+      this.offset = offset;
+      this.rangeStart = rangeStart;
+      this.rangeEnd = rangeEnd;
+      this.lineSeparator = getLineSeparator(textDocument.getContent());
+    }
+
+    /**
+     * Lay out the gap between two tokens: nothing before a comma or a colon, a space after a colon,
+     * and a new line before each property, item and closing bracket of a non-empty container.
+     *
+     * @param start The gap start offset in the container.
+     * @param end The gap end offset in the container.
+     * @param previous The token before the gap.
+     * @param next The token after the gap.
+     * @param depth The depth of the token after the gap.
+     */
+    void gap(int start, int end, JsonToken previous, JsonToken next, int depth) {
+      if (start + this.offset > this.rangeEnd || end + this.offset < this.rangeStart) {
+        return;
+      }
+
+      for (int i = start; i < end; i++) {
+        final char c = this.text.charAt(i);
+        if (c != ',' && c != ':' && !Character.isWhitespace(c)) {
+          // a comment, whose lines are the author's.
+          return;
+        }
+      }
+
+      int segmentStart = start;
+      char punctuation = 0;
+      for (int i = start; i < end; i++) {
+        final char c = this.text.charAt(i);
+        if (c == ',' || c == ':') {
+          this.replace(segmentStart, i, "");
+          segmentStart = i + 1;
+          punctuation = c;
+        }
+      }
+
+      if (punctuation == ':') {
+        this.replace(segmentStart, end, " ");
+      } else if (next.isStructEnd()) {
+        this.replace(segmentStart, end, previous.isStructStart() ? "" : this.newLine(depth));
+      } else if (previous.isStructStart() || punctuation == ',') {
+        this.replace(segmentStart, end, this.newLine(depth));
+      }
+    }
+
+    /**
+     * Get a new line at a depth.
+     *
+     * @param depth The depth.
+     * @return The line separator and the indentation.
+     */
+    private String newLine(int depth) {
+      return this.lineSeparator + INDENTATION.repeat(depth);
+    }
+
+    /**
+     * Replace whitespace, editing only the characters that differ and only within the range. The
+     * whitespace outside the range is kept, so when it does not fit the layout the edit is skipped.
+     *
+     * @param segmentStart The whitespace start offset in the container.
+     * @param segmentEnd The whitespace end offset in the container.
+     * @param layout The whitespace to have instead.
+     */
+    private void replace(int segmentStart, int segmentEnd, String layout) {
+      final int start = Math.max(segmentStart, this.rangeStart - this.offset);
+      final int end = Math.min(segmentEnd, this.rangeEnd - this.offset);
+      if (start > end) {
+        return;
+      }
+
+      final int keptBefore = start - segmentStart;
+      final int keptAfter = segmentEnd - end;
+      if (keptBefore + keptAfter > layout.length()
+          || !this.text.regionMatches(segmentStart, layout, 0, keptBefore)
+          || !this.text.regionMatches(end, layout, layout.length() - keptAfter, keptAfter)) {
+        return;
+      }
+      final String replacement = layout.substring(keptBefore, layout.length() - keptAfter);
+
+      final int common = Math.min(end - start, replacement.length());
+      int prefix = 0;
+      while (prefix < common && this.text.charAt(start + prefix) == replacement.charAt(prefix)) {
+        prefix++;
+      }
+      int suffix = 0;
+      while (suffix < common - prefix
+          && this.text.charAt(end - 1 - suffix)
+              == replacement.charAt(replacement.length() - 1 - suffix)) {
+        suffix++;
+      }
+
+      if (prefix + suffix == end - start && prefix + suffix == replacement.length()) {
+        return;
+      }
+
+      this.edits.add(
+          new TextEdit(
+              new Range(this.positionAt(start + prefix), this.positionAt(end - suffix)),
+              replacement.substring(prefix, replacement.length() - suffix)));
+    }
+
+    /**
+     * Get the document position of an offset, counting lines forward from the first edit, as edits
+     * come in document order.
+     *
+     * @param containerOffset The offset in the container, not before the previous one.
+     * @return The position.
+     */
+    private Position positionAt(int containerOffset) {
+      if (this.anchorPosition == null) {
+        this.anchor = containerOffset;
+        this.anchorPosition = this.textDocument.positionAt(this.offset + containerOffset);
+        this.scanned = containerOffset;
+      }
+
+      for (; this.scanned < containerOffset; this.scanned++) {
+        if (this.text.charAt(this.scanned) == '\n') {
+          this.line++;
+          this.lineStart = this.scanned + 1;
+        }
+      }
+
+      return this.line == 0
+          ? new Position(
+              this.anchorPosition.getLine(),
+              this.anchorPosition.getCharacter() + containerOffset - this.anchor)
+          : new Position(
+              this.anchorPosition.getLine() + this.line, containerOffset - this.lineStart);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+/**
+ * JSON Factories. The Jackson factories shared by the streaming readers of patch files.
+ *
+ * @since 0.1.0
+ */
+public final class JsonFactories {
+  /** The parser factory, tolerating what editors tolerate in JSON files. */
+  public static final JsonFactory TOLERANT =
+      JsonFactory.builder()
+          .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+          .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+          .build();
+
+  /** Constructor. */
+  private JsonFactories() {}
+}
@@ -0,0 +1,50 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.json;
+
+import lombok.Getter;
+
+/**
+ * Positioned Node. A syntax node together with its absolute start offset.
+ *
+ * @since 0.1.0
+ */
+public final class PositionedNode {
+  /** The node. */
+  @Getter private final SyntaxNode node;
+
+  /** The node start offset. */
+  @Getter private final int start;
+
+  /** Constructor. */
+  public PositionedNode(SyntaxNode node, int start) {
+    this.node = node;
+    this.start = start;
+  }
+
+  /**
+   * Get the node end offset.
+   *
+   * @return The node end offset, exclusive.
+   */
+  public int getEnd() {
+    return this.start + this.node.getLength();
+  }
+
+  /**
+   * Get a child of the node.
+   *
+   * @param index The child index.
+   * @return The positioned child.
+   */
+  public PositionedNode getChild(int index) {
+    return new PositionedNode(
+        this.node.getChild(index), this.start + this.node.getChildOffset(index));
+  }
+}
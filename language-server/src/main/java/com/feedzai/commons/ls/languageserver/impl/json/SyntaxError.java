@@ -0,0 +1,44 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.json;
+
+import lombok.Getter;
+
+/**
+ * Syntax Error.
+ *
+ * @since 0.1.0
+ */
+public final class SyntaxError {
+  /** The error start offset. */
+  @Getter private final int start;
+
+  /** The error end offset. */
+  @Getter private final int end;
+
+  /** The error message. */
+  @Getter private final String message;
+
+  /** Constructor. */
+  public SyntaxError(int start, int end, String message) {
+    this.start = start;
+    this.end = end;
+    this.message = message;
+  }
+
+  /**
+   * Shift the error.
+   *
+   * @param delta The offset delta.
+   * @return The shifted error.
+   */
+  SyntaxError shift(int delta) {
+    return new SyntaxError(this.start + delta, this.end + delta, this.message);
+  }
+}
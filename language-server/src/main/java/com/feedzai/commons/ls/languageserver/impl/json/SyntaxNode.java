@@ -0,0 +1,187 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.json;
+
+import lombok.Getter;
+
+/**
+ * Syntax Node. An immutable node of a JSON syntax tree. Children offsets are kept by the parent,
+ * relative to its start, so an edit only rebuilds the nodes on the path to the edited node and
+ * every untouched subtree is shared between versions.
+ *
+ * @since 0.1.0
+ */
+public final class SyntaxNode {
+  /** No children. */
+  private static final SyntaxNode[] NO_CHILDREN = new SyntaxNode[0];
+
+  /** No offsets. */
+  private static final int[] NO_OFFSETS = new int[0];
+
+  /** Node kind. */
+  public enum Kind {
+    /** Object, with property children. */
+    OBJECT,
+    /** Array, with value children. */
+    ARRAY,
+    /** Property, with a key child and an optional value child. */
+    PROPERTY,
+    /** String. */
+    STRING,
+    /** Number. */
+    NUMBER,
+    /** Boolean. */
+    BOOLEAN,
+    /** Null. */
+    NULL,
+    /** Invalid token. */
+    INVALID
+  }
+
+  /** The node kind. */
+  @Getter private final Kind kind;
+
+  /** The node length. */
+  @Getter private final int length;
+
+  /** The scalar value, unescaped for strings, or null for containers and properties. */
+  @Getter private final String value;
+
+  /** Whether the node is terminated, i.e. its closing bracket or quote is present. */
+  @Getter private final boolean closed;
+
+  /** The children. */
+  private final SyntaxNode[] children;
+
+  /** The children offsets, relative to the node start. */
+  private final int[] offsets;
+
+  /**
+   * Constructor.
+   *
+   * @param kind The node kind.
+   * @param length The node length.
+   * @param value The scalar value.
+   * @param closed Whether the node is terminated.
+   * @param children The children.
+   * @param offsets The children offsets, relative to the node start.
+   */
+  SyntaxNode(
+      Kind kind, int length, String value, boolean closed, SyntaxNode[] children, int[] offsets) {
+    this.kind = kind;
+    this.length = length;
+    this.value = value;
+    this.closed = closed;
+    this.children = children;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Create a scalar node.
+   *
+   * @param kind The node kind.
+   * @param length The node length.
+   * @param value The scalar value.
+   * @param closed Whether the node is terminated.
+   * @return The node.
+   */
+  static SyntaxNode scalar(Kind kind, int length, String value, boolean closed) {
+    return new SyntaxNode(kind, length, value, closed, NO_CHILDREN, NO_OFFSETS);
+  }
+
+  /**
+   * Get the number of children.
+   *
+   * @return The number of children.
+   */
+  public int getChildCount() {
+    return this.children.length;
+  }
+
+  /**
+   * Get a child.
+   *
+   * @param index The child index.
+   * @return The child.
+   */
+  public SyntaxNode getChild(int index) {
+    return this.children[index];
+  }
+
+  /**
+   * Get a child offset.
+   *
+   * @param index The child index.
+   * @return The child offset, relative to this node start.
+   */
+  public int getChildOffset(int index) {
+    return this.offsets[index];
+  }
+
+  /**
+   * Get the key of a property.
+   *
+   * @return The key node, or null if this is not a property.
+   */
+  public SyntaxNode getKey() {
+    return this.kind == Kind.PROPERTY && this.children.length > 0 ? this.children[0] : null;
+  }
+
+  /**
+   * Get the value of a property.
+   *
+   * @return The value node, or null if this is not a property or the value is missing.
+   */
+  public SyntaxNode getPropertyValue() {
+    return this.kind == Kind.PROPERTY && this.children.length > 1 ? this.children[1] : null;
+  }
+
+  /**
+   * Get the value of an object property by name.
+   *
+   * @param name The property name.
+   * @return The value node, or null if the property or its value is missing.
+   */
+  public SyntaxNode getProperty(String name) {
+    if (this.kind != Kind.OBJECT) {
+      return null;
+    }
+
+    for (SyntaxNode property : this.children) {
+      final SyntaxNode key = property.getKey();
+      if (key != null && key.kind == Kind.STRING && name.equals(key.value)) {
+        return property.getPropertyValue();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Copy the node, replacing a child whose length changed.
+   *
+   * @param index The child index.
+   * @param child The new child.
+   * @return The new node.
+   */
+  SyntaxNode withChild(int index, SyntaxNode child) {
+    final int delta = child.length - this.children[index].length;
+
+    final SyntaxNode[] newChildren = this.children.clone();
+    newChildren[index] = child;
+
+    final int[] newOffsets = this.offsets.clone();
+    for (int i = index + 1; i < newOffsets.length; i++) {
+      newOffsets[i] += delta;
+    }
+
+    return new SyntaxNode(
+        this.kind, this.length + delta, this.value, this.closed, newChildren, newOffsets);
+  }
+}
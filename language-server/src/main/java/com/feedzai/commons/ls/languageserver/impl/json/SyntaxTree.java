@@ -0,0 +1,217 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.json;
+
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Syntax Tree. An immutable JSON syntax tree that is updated incrementally: an edit reparses only
+ * the innermost object or array that encloses it, and shares every other node with the previous
+ * tree.
+ *
+ * @since 0.1.0
+ */
+public final class SyntaxTree {
+  /** The root value, or null if the document is empty. */
+  @Getter private final PositionedNode root;
+
+  /** The syntax errors, ordered by offset. */
+  @Getter private final List<SyntaxError> errors;
+
+  /** Constructor. */
+  private SyntaxTree(PositionedNode root, List<SyntaxError> errors) {
+    this.root = root;
+    this.errors = errors;
+  }
+
+  /**
+   * Parse a document.
+   *
+   * @param text The document text.
+   * @return The syntax tree.
+   */
+  public static SyntaxTree parse(CharSequence text) {
+    final TolerantJsonParser parser = new TolerantJsonParser(text, 0);
+    final PositionedNode root = parser.parseDocument();
+
+    return new SyntaxTree(root, sorted(parser.getErrors()));
+  }
+
+  /**
+   * Update the tree after an edit.
+   *
+   * @param text The edited document text.
+   * @param start The edit start offset.
+   * @param oldEnd The edit end offset, before the edit.
+   * @param newLength The length of the inserted text.
+   * @return The updated syntax tree.
+   */
+  public SyntaxTree update(CharSequence text, int start, int oldEnd, int newLength) {
+    if (this.root == null) {
+      return parse(text);
+    }
+
+    final int delta = newLength - (oldEnd - start);
+
+    // the path of nodes strictly enclosing the edit, with the index of each node in its parent.
+    final List<PositionedNode> path = new ArrayList<>();
+    final List<Integer> indexes = new ArrayList<>();
+
+    PositionedNode current = this.root;
+    int index = -1;
+    while (current != null && current.getStart() < start && oldEnd < current.getEnd()) {
+      path.add(current);
+      indexes.add(index);
+
+      final PositionedNode parent = current;
+      current = null;
+      for (int i = 0; i < parent.getNode().getChildCount(); i++) {
+        final PositionedNode child = parent.getChild(i);
+        if (child.getStart() < start && oldEnd < child.getEnd()) {
+          current = child;
+          index = i;
+          break;
+        }
+      }
+    }
+
+    for (int depth = path.size() - 1; depth >= 0; depth--) {
+      final PositionedNode candidate = path.get(depth);
+      final SyntaxNode node = candidate.getNode();
+
+      if ((node.getKind() != Kind.OBJECT && node.getKind() != Kind.ARRAY) || !node.isClosed()) {
+        continue;
+      }
+
+      final TolerantJsonParser parser = new TolerantJsonParser(text, candidate.getStart());
+      final PositionedNode reparsed = parser.parseValue();
+
+      // the new node only replaces the old one if the text after it still parses the same way.
+      if (reparsed == null
+          || reparsed.getStart() != candidate.getStart()
+          || reparsed.getNode().getKind() != node.getKind()
+          || !reparsed.getNode().isClosed()
+          || reparsed.getNode().getLength() != node.getLength() + delta) {
+        continue;
+      }
+
+      SyntaxNode replacement = reparsed.getNode();
+      for (int i = depth; i > 0; i--) {
+        replacement = path.get(i - 1).getNode().withChild(indexes.get(i), replacement);
+      }
+
+      return new SyntaxTree(
+          new PositionedNode(replacement, this.root.getStart()),
+          spliceErrors(candidate.getStart(), candidate.getEnd(), delta, parser.getErrors()));
+    }
+
+    return parse(text);
+  }
+
+  /**
+   * Get the path of nodes containing an offset, from the root to the innermost node.
+   *
+   * @param offset The offset.
+   * @return The path, empty if the offset is outside the root value.
+   */
+  public List<PositionedNode> pathAt(int offset) {
+    final List<PositionedNode> path = new ArrayList<>();
+
+    PositionedNode current = this.root;
+    while (current != null && contains(current, offset)) {
+      path.add(current);
+
+      final PositionedNode parent = current;
+      current = null;
+      for (int i = 0; i < parent.getNode().getChildCount(); i++) {
+        final PositionedNode child = parent.getChild(i);
+        if (contains(child, offset)) {
+          current = child;
+          break;
+        }
+        if (child.getStart() >= offset) {
+          break;
+        }
+      }
+    }
+
+    return path;
+  }
+
+  /**
+   * Whether a node contains an offset. Offsets on the opening bracket or quote are outside the
+   * node, and offsets right after an unterminated node or a scalar are inside it.
+   *
+   * @param positionedNode The node.
+   * @param offset The offset.
+   * @return Whether the node contains the offset.
+   */
+  private static boolean contains(PositionedNode positionedNode, int offset) {
+    if (offset <= positionedNode.getStart()) {
+      return false;
+    }
+
+    final SyntaxNode node = positionedNode.getNode();
+    switch (node.getKind()) {
+      case OBJECT:
+      case ARRAY:
+      case STRING:
+        return offset < positionedNode.getEnd()
+            || (!node.isClosed() && offset == positionedNode.getEnd());
+      default:
+        return offset <= positionedNode.getEnd();
+    }
+  }
+
+  /**
+   * Replace the errors of a reparsed range.
+   *
+   * @param start The reparsed range start offset.
+   * @param end The reparsed range end offset, before the edit.
+   * @param delta The edit length delta.
+   * @param reparsedErrors The errors of the reparsed range.
+   * @return The updated errors, ordered by offset.
+   */
+  private List<SyntaxError> spliceErrors(
+      int start, int end, int delta, List<SyntaxError> reparsedErrors) {
+    final List<SyntaxError> spliced = new ArrayList<>();
+
+    // a closed node reports no error at its own start, errors there belong to its parent.
+    for (SyntaxError error : this.errors) {
+      if (error.getStart() <= start) {
+        spliced.add(error);
+      }
+    }
+
+    spliced.addAll(sorted(reparsedErrors));
+
+    for (SyntaxError error : this.errors) {
+      if (error.getStart() >= end) {
+        spliced.add(error.shift(delta));
+      }
+    }
+
+    return List.copyOf(spliced);
+  }
+
+  /**
+   * Sort errors by offset.
+   *
+   * @param errors The errors.
+   * @return The sorted errors.
+   */
+  private static List<SyntaxError> sorted(List<SyntaxError> errors) {
+    final List<SyntaxError> sorted = new ArrayList<>(errors);
+    sorted.sort((a, b) -> Integer.compare(a.getStart(), b.getStart()));
+    return List.copyOf(sorted);
+  }
+}
@@ -0,0 +1,532 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.json;
+
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Tolerant JSON Parser. A recursive descent parser that recovers from syntax errors, so documents
+ * being edited still produce a syntax tree.
+ *
+ * @since 0.1.0
+ */
+final class TolerantJsonParser {
+  /** The maximum nesting depth. */
+  private static final int MAX_DEPTH = 512;
+
+  /** A valid JSON number. */
+  private static final Pattern NUMBER =
+      Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+  /** The text. */
+  private final CharSequence text;
+
+  /** The syntax errors. */
+  private final List<SyntaxError> errors = new ArrayList<>();
+
+  /** The current position. */
+  private int position;
+
+  /** The current nesting depth. */
+  private int depth;
+
+  /**
+   * Constructor.
+   *
+   * @param text The text.
+   * @param position The position to start parsing at.
+   */
+  TolerantJsonParser(CharSequence text, int position) {
+    this.text = text;
+    this.position = position;
+  }
+
+  /**
+   * Get the syntax errors found so far.
+   *
+   * @return The syntax errors.
+   */
+  List<SyntaxError> getErrors() {
+    return this.errors;
+  }
+
+  /**
+   * Parse a whole document.
+   *
+   * @return The root value, or null if the document is empty.
+   */
+  PositionedNode parseDocument() {
+    final PositionedNode root = parseValue();
+
+    skipWhitespace();
+    if (!isEnd()) {
+      if (root == null) {
+        error(this.position, this.text.length(), "Value expected");
+      } else {
+        error(this.position, this.text.length(), "End of file expected");
+      }
+    }
+
+    return root;
+  }
+
+  /**
+   * Parse a value.
+   *
+   * @return The value, or null if there is no value at the current position.
+   */
+  PositionedNode parseValue() {
+    skipWhitespace();
+    if (isEnd()) {
+      return null;
+    }
+
+    final char c = peek();
+    if ((c == '{' || c == '[') && this.depth >= MAX_DEPTH) {
+      final int start = this.position++;
+      error(start, this.position, "Maximum nesting depth exceeded");
+      return scalar(Kind.INVALID, start, String.valueOf(c), true);
+    }
+
+    if (c == '{') {
+      return parseObject();
+    }
+    if (c == '[') {
+      return parseArray();
+    }
+    if (c == '"') {
+      return parseString();
+    }
+    if (c == '-' || isDigit(c)) {
+      return parseNumber();
+    }
+    if (isWordPart(c)) {
+      return parseLiteral();
+    }
+
+    return null;
+  }
+
+  /**
+   * Parse an object.
+   *
+   * @return The object.
+   */
+  private PositionedNode parseObject() {
+    final int start = this.position++;
+    final List<PositionedNode> properties = new ArrayList<>();
+    boolean closed = false;
+
+    this.depth++;
+    while (true) {
+      skipWhitespace();
+      if (isEnd()) {
+        error(start, start + 1, "Unclosed object, '}' expected");
+        break;
+      }
+
+      final char c = peek();
+      if (c == '}') {
+        this.position++;
+        closed = true;
+        break;
+      }
+      if (c == ']') {
+        error(start, start + 1, "Unclosed object, '}' expected");
+        break;
+      }
+
+      final PositionedNode property = parseProperty();
+      if (property == null) {
+        error(this.position, this.position + 1, "Property expected");
+        this.position++;
+        continue;
+      }
+      properties.add(property);
+
+      skipWhitespace();
+      if (isEnd() || peek() == '}' || peek() == ']') {
+        continue;
+      }
+
+      if (peek() == ',') {
+        final int comma = this.position++;
+        skipWhitespace();
+        if (!isEnd() && peek() == '}') {
+          error(comma, comma + 1, "Trailing comma");
+        }
+      } else {
+        error(this.position, this.position + 1, "',' or '}' expected");
+      }
+    }
+    this.depth--;
+
+    return container(Kind.OBJECT, start, properties, closed);
+  }
+
+  /**
+   * Parse a property.
+   *
+   * @return The property, or null if there is no property key at the current position.
+   */
+  private PositionedNode parseProperty() {
+    final char c = peek();
+
+    final PositionedNode key;
+    if (c == '"') {
+      key = parseString();
+    } else if (isWordPart(c)) {
+      key = parseWord(Kind.INVALID);
+      error(key.getStart(), key.getEnd(), "Property keys must be double quoted");
+    } else {
+      return null;
+    }
+
+    final List<PositionedNode> children = new ArrayList<>();
+    children.add(key);
+    int end = key.getEnd();
+
+    skipWhitespace();
+    if (!isEnd() && peek() == ':') {
+      end = ++this.position;
+
+      final PositionedNode value = parseValue();
+      if (value == null) {
+        error(end - 1, end, "Value expected");
+      } else {
+        children.add(value);
+        end = value.getEnd();
+      }
+    } else {
+      error(key.getStart(), key.getEnd(), "':' expected");
+    }
+
+    return node(Kind.PROPERTY, key.getStart(), end, children, true);
+  }
+
+  /**
+   * Parse an array.
+   *
+   * @return The array.
+   */
+  private PositionedNode parseArray() {
+    final int start = this.position++;
+    final List<PositionedNode> values = new ArrayList<>();
+    boolean closed = false;
+
+    this.depth++;
+    while (true) {
+      skipWhitespace();
+      if (isEnd()) {
+        error(start, start + 1, "Unclosed array, ']' expected");
+        break;
+      }
+
+      final char c = peek();
+      if (c == ']') {
+        this.position++;
+        closed = true;
+        break;
+      }
+      if (c == '}') {
+        error(start, start + 1, "Unclosed array, ']' expected");
+        break;
+      }
+
+      final PositionedNode value = parseValue();
+      if (value == null) {
+        error(this.position, this.position + 1, "Value expected");
+        this.position++;
+        continue;
+      }
+      values.add(value);
+
+      skipWhitespace();
+      if (isEnd() || peek() == ']' || peek() == '}') {
+        continue;
+      }
+
+      if (peek() == ',') {
+        final int comma = this.position++;
+        skipWhitespace();
+        if (!isEnd() && peek() == ']') {
+          error(comma, comma + 1, "Trailing comma");
+        }
+      } else {
+        error(this.position, this.position + 1, "',' or ']' expected");
+      }
+    }
+    this.depth--;
+
+    return container(Kind.ARRAY, start, values, closed);
+  }
+
+  /**
+   * Parse a string. Strings end at the closing quote, or at the end of the line if unterminated.
+   *
+   * @return The string.
+   */
+  private PositionedNode parseString() {
+    final int start = this.position++;
+    final StringBuilder value = new StringBuilder();
+
+    while (!isEnd()) {
+      final char c = peek();
+
+      if (c == '"') {
+        this.position++;
+        return scalar(Kind.STRING, start, value.toString(), true);
+      }
+      if (c == '\n' || c == '\r') {
+        break;
+      }
+
+      this.position++;
+      if (c != '\\') {
+        value.append(c);
+      } else if (!isEnd()) {
+        appendEscape(value);
+      }
+    }
+
+    error(start, this.position, "Unterminated string");
+    return scalar(Kind.STRING, start, value.toString(), false);
+  }
+
+  /**
+   * Append an escape sequence, the backslash being already consumed.
+   *
+   * @param value The string value.
+   */
+  private void appendEscape(StringBuilder value) {
+    final int start = this.position - 1;
+    final char c = this.text.charAt(this.position++);
+
+    switch (c) {
+      case 'b':
+        value.append('\b');
+        break;
+      case 'f':
+        value.append('\f');
+        break;
+      case 'n':
+        value.append('\n');
+        break;
+      case 'r':
+        value.append('\r');
+        break;
+      case 't':
+        value.append('\t');
+        break;
+      case 'u':
+        if (this.position + 4 <= this.text.length()) {
+          try {
+            value.append(
+                (char)
+                    Integer.parseInt(
+                        this.text.subSequence(this.position, this.position + 4).toString(), 16));
+            this.position += 4;
+            break;
+          } catch (NumberFormatException e) {
+            // reported below
+          }
+        }
+        error(start, this.position, "Invalid unicode escape");
+        break;
+      case '"':
+      case '\\':
+      case '/':
+        value.append(c);
+        break;
+      default:
+        error(start, this.position, "Invalid escape character");
+        value.append(c);
+    }
+  }
+
+  /**
+   * Parse a number.
+   *
+   * @return The number.
+   */
+  private PositionedNode parseNumber() {
+    final int start = this.position;
+
+    while (!isEnd() && isNumberPart(peek())) {
+      this.position++;
+    }
+
+    final String value = this.text.subSequence(start, this.position).toString();
+    if (!NUMBER.matcher(value).matches()) {
+      error(start, this.position, "Invalid number");
+    }
+
+    return scalar(Kind.NUMBER, start, value, true);
+  }
+
+  /**
+   * Parse a literal, i.e. true, false or null.
+   *
+   * @return The literal, or an invalid token.
+   */
+  private PositionedNode parseLiteral() {
+    final PositionedNode word = parseWord(Kind.INVALID);
+    final String value = word.getNode().getValue();
+
+    if ("true".equals(value) || "false".equals(value)) {
+      return scalar(Kind.BOOLEAN, word.getStart(), value, true);
+    }
+    if ("null".equals(value)) {
+      return scalar(Kind.NULL, word.getStart(), value, true);
+    }
+
+    error(word.getStart(), word.getEnd(), "Value expected");
+    return word;
+  }
+
+  /**
+   * Parse a bare word.
+   *
+   * @param kind The node kind.
+   * @return The word.
+   */
+  private PositionedNode parseWord(Kind kind) {
+    final int start = this.position;
+
+    while (!isEnd() && isWordPart(peek())) {
+      this.position++;
+    }
+
+    return scalar(kind, start, this.text.subSequence(start, this.position).toString(), true);
+  }
+
+  /** Skip whitespace. */
+  private void skipWhitespace() {
+    while (!isEnd()) {
+      final char c = peek();
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+        return;
+      }
+      this.position++;
+    }
+  }
+
+  /**
+   * Whether the parser reached the end of the text.
+   *
+   * @return Whether the parser reached the end.
+   */
+  private boolean isEnd() {
+    return this.position >= this.text.length();
+  }
+
+  /**
+   * Get the character at the current position.
+   *
+   * @return The character.
+   */
+  private char peek() {
+    return this.text.charAt(this.position);
+  }
+
+  /**
+   * Report a syntax error.
+   *
+   * @param start The error start offset.
+   * @param end The error end offset.
+   * @param message The error message.
+   */
+  private void error(int start, int end, String message) {
+    this.errors.add(new SyntaxError(start, Math.min(end, this.text.length()), message));
+  }
+
+  /**
+   * Create a positioned scalar node ending at the current position.
+   *
+   * @param kind The node kind.
+   * @param start The node start offset.
+   * @param value The scalar value.
+   * @param closed Whether the node is terminated.
+   * @return The positioned node.
+   */
+  private PositionedNode scalar(Kind kind, int start, String value, boolean closed) {
+    return new PositionedNode(SyntaxNode.scalar(kind, this.position - start, value, closed), start);
+  }
+
+  /**
+   * Create a positioned container node ending at the current position.
+   *
+   * @param kind The node kind.
+   * @param start The node start offset.
+   * @param children The positioned children.
+   * @param closed Whether the node is terminated.
+   * @return The positioned node.
+   */
+  private PositionedNode container(
+      Kind kind, int start, List<PositionedNode> children, boolean closed) {
+    return node(kind, start, this.position, children, closed);
+  }
+
+  /**
+   * Create a positioned node.
+   *
+   * @param kind The node kind.
+   * @param start The node start offset.
+   * @param end The node end offset.
+   * @param children The positioned children.
+   * @param closed Whether the node is terminated.
+   * @return The positioned node.
+   */
+  private static PositionedNode node(
+      Kind kind, int start, int end, List<PositionedNode> children, boolean closed) {
+    final SyntaxNode[] nodes = new SyntaxNode[children.size()];
+    final int[] offsets = new int[children.size()];
+
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = children.get(i).getNode();
+      offsets[i] = children.get(i).getStart() - start;
+    }
+
+    return new PositionedNode(
+        new SyntaxNode(kind, end - start, null, closed, nodes, offsets), start);
+  }
+
+  /**
+   * Whether the character is a digit.
+   *
+   * @param c The character.
+   * @return Whether the character is a digit.
+   */
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Whether the character can be part of a number.
+   *
+   * @param c The character.
+   * @return Whether the character can be part of a number.
+   */
+  private static boolean isNumberPart(char c) {
+    return isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+  }
+
+  /**
+   * Whether the character can be part of a bare word.
+   *
+   * @param c The character.
+   * @return Whether the character can be part of a bare word.
+   */
+  private static boolean isWordPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+}
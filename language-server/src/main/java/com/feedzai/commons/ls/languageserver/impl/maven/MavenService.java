@@ -10,14 +10,31 @@ package com.feedzai.commons.ls.languageserver.impl.maven;
 
 import com.feedzai.commons.ls.languageserver.api.BuildService;
 import java.io.File;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The Maven Service.
+ * The Maven Service. Indexes the installed versions of an artifact with one directory listing on
+ * its first lookup, then keeps them fresh through a {@link WatchService}, so later lookups never
+ * touch the disk.
  *
  * @since 0.1.0
  */
@@ -25,51 +42,275 @@ public final class MavenService implements BuildService {
   /** Logger for this class. */
   private final Logger logger = LoggerFactory.getLogger(MavenService.class);
 
+  /** The local repository. */
+  private final Path repository;
+
+  /** The installed versions, sorted, by artifact key, for the artifacts looked up so far. */
+  private final Map<String, List<MavenVersion>> versions = new ConcurrentHashMap<>();
+
+  /** The artifact keys affected by each watched directory. */
+  private final Map<WatchKey, Set<String>> watchedDirectories = new ConcurrentHashMap<>();
+
+  /** The watch service, created with the first watch. */
+  private WatchService watchService;
+
+  /** Constructor. */
+  public MavenService() {
+    this(Path.of(System.getProperty("user.home"), ".m2", "repository"));
+  }
+
   /**
-   * Get the artifact version based on groupId and artifactId.
+   * Constructor.
+   *
+   * @param repository The local repository.
+   */
+  public MavenService(Path repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Get the latest installed version of an artifact.
    *
    * @param groupId the group ID of the artifact.
    * @param artifactId the artifact ID.
    * @return the artifact version.
    */
+  @Override
   public Optional<String> getVersion(final String groupId, final String artifactId) {
-    final String home = System.getProperty("user.home");
-    final File m2 = new File(home, ".m2/repository");
-
-    final File artifactDirectory = new File(m2, groupId.replace('.', '/') + "/" + artifactId);
+    final List<MavenVersion> installed = getVersions(groupId, artifactId);
 
-    if (!artifactDirectory.exists()) {
-      logger.warn("Artifact directory not found: {}", artifactDirectory);
+    if (installed.isEmpty()) {
+      logger.warn("No versions found for artifact: {}:{}", groupId, artifactId);
       return Optional.empty();
     }
 
-    final File[] versionDirectories = artifactDirectory.listFiles(File::isDirectory);
+    return Optional.of(installed.get(installed.size() - 1).getValue());
+  }
 
-    Arrays.sort(
-        versionDirectories, Comparator.comparing(File::getName, MavenService::versionCompare));
+  /**
+   * Get the installed versions of an artifact, starting to watch it for changes.
+   *
+   * @param groupId the group ID of the artifact.
+   * @param artifactId the artifact ID.
+   * @return the installed versions, oldest first.
+   */
+  public List<MavenVersion> getVersions(final String groupId, final String artifactId) {
+    return this.versions.computeIfAbsent(
+        getArtifactKey(groupId, artifactId),
+        key -> {
+          final Path artifactDirectory = getArtifactDirectory(groupId, artifactId);
+          // watch before listing, so a version installed in between is not missed.
+          watch(key, artifactDirectory);
+          return scan(artifactDirectory);
+        });
+  }
 
-    if (versionDirectories.length > 0) {
-      return Optional.of(versionDirectories[versionDirectories.length - 1].getName());
+  /**
+   * Get the glob pattern of the JARs of every version of an artifact.
+   *
+   * @param groupId the group ID of the artifact.
+   * @param artifactId the artifact ID.
+   * @return the glob pattern.
+   */
+  @Override
+  public List<String> getWatchedFiles(final String groupId, final String artifactId) {
+    return List.of(toGlob(getArtifactDirectory(groupId, artifactId)) + "/*/*.jar");
+  }
+
+  /**
+   * Scan the versions of an artifact again, without waiting for the watch service.
+   *
+   * @param groupId the group ID of the artifact.
+   * @param artifactId the artifact ID.
+   */
+  @Override
+  public void refresh(final String groupId, final String artifactId) {
+    final String key = getArtifactKey(groupId, artifactId);
+
+    if (this.versions.containsKey(key)) {
+      this.versions.put(key, scan(getArtifactDirectory(groupId, artifactId)));
     } else {
-      logger.warn("No versions found for artifact: {}", artifactDirectory);
-      return Optional.empty();
+      getVersions(groupId, artifactId);
+    }
+  }
+
+  /**
+   * Get the artifact JAR path in the local repository.
+   *
+   * @param groupId the group ID of the artifact.
+   * @param artifactId the artifact ID.
+   * @param version the artifact version.
+   * @return the artifact JAR path.
+   */
+  @Override
+  public Path getArtifactPath(final String groupId, final String artifactId, final String version) {
+    return getArtifactDirectory(groupId, artifactId)
+        .resolve(version)
+        .resolve(String.format("%s-%s.jar", artifactId, version));
+  }
+
+  /**
+   * Get the artifact directory in the local repository.
+   *
+   * @param groupId the group ID of the artifact.
+   * @param artifactId the artifact ID.
+   * @return the artifact directory.
+   */
+  private Path getArtifactDirectory(final String groupId, final String artifactId) {
+    return this.repository.resolve(groupId.replace('.', '/')).resolve(artifactId);
+  }
+
+  /**
+   * List the installed versions of an artifact.
+   *
+   * @param artifactDirectory The artifact directory.
+   * @return The installed versions, oldest first.
+   */
+  private List<MavenVersion> scan(Path artifactDirectory) {
+    final Set<MavenVersion> installed = new TreeSet<>();
+
+    if (Files.isDirectory(artifactDirectory)) {
+      try (Stream<Path> versionDirectories = Files.list(artifactDirectory)) {
+        versionDirectories
+            .filter(Files::isDirectory)
+            .filter(
+                versionDirectory ->
+                    Files.isRegularFile(
+                        versionDirectory.resolve(
+                            String.format(
+                                "%s-%s.jar",
+                                artifactDirectory.getFileName(), versionDirectory.getFileName()))))
+            .forEach(
+                versionDirectory ->
+                    installed.add(new MavenVersion(versionDirectory.getFileName().toString())));
+      } catch (IOException | UncheckedIOException e) {
+        logger.warn("Error scanning artifact directory: {}", artifactDirectory, e);
+      }
     }
+
+    return List.copyOf(installed);
   }
 
   /**
-   * Compare two version strings.
+   * Watch the directories where new versions of an artifact appear: the artifact directory and its
+   * version directories, or the nearest existing ancestor while the artifact is not installed.
    *
-   * @param v1 Version 1
-   * @param v2 Version 2
-   * @return A negative integer, zero, or a positive integer as the first argument is less than,
-   *     equal to, or greater than the second.
+   * @param key The artifact key.
+   * @param artifactDirectory The artifact directory.
    */
-  private static int versionCompare(String v1, String v2) {
-    String[] parts1 = v1.split("\\.");
-    String[] parts2 = v2.split("\\.");
+  private void watch(String key, Path artifactDirectory) {
+    final List<Path> directories = new ArrayList<>();
 
-    return Arrays.compare(
-        Arrays.stream(parts1).mapToInt(Integer::parseInt).toArray(),
-        Arrays.stream(parts2).mapToInt(Integer::parseInt).toArray());
+    if (Files.isDirectory(artifactDirectory)) {
+      directories.add(artifactDirectory);
+      try (Stream<Path> versionDirectories = Files.list(artifactDirectory)) {
+        versionDirectories.filter(Files::isDirectory).forEach(directories::add);
+      } catch (IOException | UncheckedIOException e) {
+        logger.warn("Error listing artifact directory: {}", artifactDirectory, e);
+      }
+    } else {
+      Path ancestor = artifactDirectory.getParent();
+      while (ancestor != null && ancestor.startsWith(this.repository)) {
+        if (Files.isDirectory(ancestor)) {
+          directories.add(ancestor);
+          break;
+        }
+        ancestor = ancestor.getParent();
+      }
+    }
+
+    for (Path directory : directories) {
+      try {
+        final WatchKey watchKey =
+            directory.register(
+                getWatchService(),
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watchedDirectories
+            .computeIfAbsent(watchKey, watched -> ConcurrentHashMap.newKeySet())
+            .add(key);
+      } catch (IOException e) {
+        logger.warn("Could not watch directory: {}", directory, e);
+      }
+    }
+  }
+
+  /**
+   * Get the watch service, starting the thread that applies its events on first use.
+   *
+   * @return The watch service.
+   * @throws IOException If the watch service cannot be created.
+   */
+  private synchronized WatchService getWatchService() throws IOException {
+    if (this.watchService == null) {
+      this.watchService = FileSystems.getDefault().newWatchService();
+
+      final Thread thread = new Thread(this::processEvents, "feedzails-maven-watcher");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    return this.watchService;
+  }
+
+  /** Apply the file system events to the index until the watch service is closed. */
+  private void processEvents() {
+    try {
+      while (true) {
+        final WatchKey watchKey = this.watchService.take();
+        watchKey.pollEvents();
+
+        final Set<String> keys =
+            this.watchedDirectories.getOrDefault(watchKey, Collections.emptySet());
+        for (String key : keys) {
+          final Path artifactDirectory = toArtifactDirectory(key);
+          this.versions.put(key, scan(artifactDirectory));
+          // new version directories, or the artifact directory itself, need watching too.
+          watch(key, artifactDirectory);
+        }
+
+        if (!watchKey.reset()) {
+          this.watchedDirectories.remove(watchKey);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      logger.debug("Watch service closed");
+    }
+  }
+
+  /**
+   * Get the directory of an artifact key.
+   *
+   * @param key The artifact key.
+   * @return The artifact directory.
+   */
+  private Path toArtifactDirectory(String key) {
+    final int separator = key.indexOf(':');
+
+    return getArtifactDirectory(key.substring(0, separator), key.substring(separator + 1));
+  }
+
+  /**
+   * Get a path as a glob pattern, with forward slashes.
+   *
+   * @param path The path.
+   * @return The glob pattern.
+   */
+  static String toGlob(Path path) {
+    return path.toAbsolutePath().toString().replace(File.separatorChar, '/');
+  }
+
+  /**
+   * Get the key of an artifact.
+   *
+   * @param groupId the group ID of the artifact.
+   * @param artifactId the artifact ID.
+   * @return the artifact key.
+   */
+  private static String getArtifactKey(String groupId, String artifactId) {
+    return groupId + ":" + artifactId;
   }
 }
@@ -0,0 +1,56 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.maven;
+
+import lombok.Getter;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+/**
+ * Maven Version. Orders versions exactly as Maven does by delegating to {@link ComparableVersion},
+ * so {@code 1.0} equals {@code 1.0.0} and {@code 1.2.0-rc1 < 1.2.0-SNAPSHOT < 1.2 < 1.2.0-sp1}.
+ *
+ * @since 0.1.0
+ */
+public final class MavenVersion implements Comparable<MavenVersion> {
+  /** The version as written. */
+  @Getter private final String value;
+
+  /** The Maven version, whose equality agrees with its ordering. */
+  private final ComparableVersion version;
+
+  /**
+   * Constructor.
+   *
+   * @param value The version as written.
+   */
+  public MavenVersion(String value) {
+    this.value = value;
+    this.version = new ComparableVersion(value);
+  }
+
+  @Override
+  public int compareTo(MavenVersion other) {
+    return this.version.compareTo(other.version);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MavenVersion && this.version.equals(((MavenVersion) other).version);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.version.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return this.value;
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.maven;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import lombok.Getter;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Pom File. The parts of a {@code pom.xml} needed to find the version a project pins for a
+ * dependency: its coordinates, parent, properties, dependencies and managed dependencies.
+ *
+ * @since 0.1.0
+ */
+public final class PomFile {
+  /** The XML parser factory, hardened against external entities. */
+  private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createFactory();
+
+  /** The file. */
+  @Getter private final Path path;
+
+  /** The modification time the file was parsed at. */
+  @Getter private final long lastModified;
+
+  /** The group id, inherited from the parent when missing. */
+  @Getter private final String groupId;
+
+  /** The artifact id. */
+  @Getter private final String artifactId;
+
+  /** The version, inherited from the parent when missing. */
+  @Getter private final String version;
+
+  /** The parent, or null. */
+  @Getter private final Dependency parent;
+
+  /** The properties. */
+  @Getter private final Map<String, String> properties;
+
+  /** The dependencies. */
+  @Getter private final List<Dependency> dependencies;
+
+  /** The managed dependencies. */
+  @Getter private final List<Dependency> managedDependencies;
+
+  /**
+   * Constructor.
+   *
+   * @param path The file.
+   * @param lastModified The modification time the file was parsed at.
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @param version The version.
+   * @param parent The parent, or null.
+   * @param properties The properties.
+   * @param dependencies The dependencies.
+   * @param managedDependencies The managed dependencies.
+   */
+  private PomFile(
+      Path path,
+      long lastModified,
+      String groupId,
+      String artifactId,
+      String version,
+      Dependency parent,
+      Map<String, String> properties,
+      List<Dependency> dependencies,
+      List<Dependency> managedDependencies) {
+    this.path = path;
+    this.lastModified = lastModified;
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.parent = parent;
+    this.properties = properties;
+    this.dependencies = dependencies;
+    this.managedDependencies = managedDependencies;
+  }
+
+  /**
+   * Parse a POM file.
+   *
+   * @param path The file.
+   * @return The parsed POM.
+   * @throws IOException If the file cannot be read or is not a valid POM.
+   */
+  public static PomFile parse(Path path) throws IOException {
+    final long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+    final Element project;
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      final DocumentBuilder documentBuilder;
+      synchronized (DOCUMENT_BUILDER_FACTORY) {
+        documentBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+      }
+      project = documentBuilder.parse(inputStream).getDocumentElement();
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException("Invalid POM file: " + path, e);
+    }
+
+    final Element parentElement = getChild(project, "parent");
+    final Dependency parent = parentElement == null ? null : toDependency(parentElement);
+
+    final Map<String, String> properties = new HashMap<>();
+    final Element propertiesElement = getChild(project, "properties");
+    if (propertiesElement != null) {
+      for (Element property : getChildren(propertiesElement, null)) {
+        properties.put(property.getTagName(), property.getTextContent().trim());
+      }
+    }
+
+    final Element dependencyManagement = getChild(project, "dependencyManagement");
+
+    return new PomFile(
+        path,
+        lastModified,
+        getText(project, "groupId", parent == null ? null : parent.getGroupId()),
+        getText(project, "artifactId", null),
+        getText(project, "version", parent == null ? null : parent.getVersion()),
+        parent,
+        Collections.unmodifiableMap(properties),
+        getDependencies(project),
+        dependencyManagement == null
+            ? Collections.emptyList()
+            : getDependencies(dependencyManagement));
+  }
+
+  /**
+   * Get the dependencies declared under an element.
+   *
+   * @param element The project or dependency management element.
+   * @return The dependencies.
+   */
+  private static List<Dependency> getDependencies(Element element) {
+    final Element dependencies = getChild(element, "dependencies");
+    if (dependencies == null) {
+      return Collections.emptyList();
+    }
+
+    final List<Dependency> result = new ArrayList<>();
+    for (Element dependency : getChildren(dependencies, "dependency")) {
+      result.add(toDependency(dependency));
+    }
+
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Read the coordinates of a dependency or parent element.
+   *
+   * @param element The element.
+   * @return The dependency.
+   */
+  private static Dependency toDependency(Element element) {
+    return new Dependency(
+        getText(element, "groupId", null),
+        getText(element, "artifactId", null),
+        getText(element, "version", null));
+  }
+
+  /**
+   * Get the text of a child element.
+   *
+   * @param element The element.
+   * @param name The child name.
+   * @param defaultValue The value when the child is missing.
+   * @return The trimmed text.
+   */
+  private static String getText(Element element, String name, String defaultValue) {
+    final Element child = getChild(element, name);
+
+    return child == null ? defaultValue : child.getTextContent().trim();
+  }
+
+  /**
+   * Get the first child element with a name.
+   *
+   * @param element The element.
+   * @param name The child name.
+   * @return The child, or null.
+   */
+  private static Element getChild(Element element, String name) {
+    final List<Element> children = getChildren(element, name);
+
+    return children.isEmpty() ? null : children.get(0);
+  }
+
+  /**
+   * Get the child elements with a name.
+   *
+   * @param element The element.
+   * @param name The child name, or null for every child.
+   * @return The children.
+   */
+  private static List<Element> getChildren(Element element, String name) {
+    final List<Element> children = new ArrayList<>();
+
+    for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node instanceof Element && (name == null || name.equals(((Element) node).getTagName()))) {
+        children.add((Element) node);
+      }
+    }
+
+    return children;
+  }
+
+  /**
+   * Create the XML parser factory.
+   *
+   * @return The factory.
+   */
+  private static DocumentBuilderFactory createFactory() {
+    final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+    try {
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+    } catch (ParserConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+    factory.setExpandEntityReferences(false);
+
+    return factory;
+  }
+
+  /**
+   * Dependency. The coordinates of a dependency, as written in the POM.
+   *
+   * @since 0.1.0
+   */
+  public static final class Dependency {
+    /** The group id. */
+    @Getter private final String groupId;
+
+    /** The artifact id. */
+    @Getter private final String artifactId;
+
+    /** The version, or null when managed elsewhere. */
+    @Getter private final String version;
+
+    /**
+     * Constructor.
+     *
+     * @param groupId The group id.
+     * @param artifactId The artifact id.
+     * @param version The version, or null.
+     */
+    public Dependency(String groupId, String artifactId, String version) {
+      this.groupId = groupId;
+      this.artifactId = artifactId;
+      this.version = version;
+    }
+  }
+}
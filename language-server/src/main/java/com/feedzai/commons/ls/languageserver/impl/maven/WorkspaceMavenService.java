@@ -0,0 +1,421 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.maven;
+
+import com.feedzai.commons.ls.languageserver.api.BuildService;
+import com.feedzai.commons.ls.languageserver.impl.maven.PomFile.Dependency;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Workspace Maven Service. Resolves the version the workspace POMs pin for an artifact, so the
+ * completions match the library the project builds against. Falls back to the latest installed
+ * version when no POM pins one, or the pinned one is not installed. The workspace folders are
+ * searched for POM files once, and the changes the client reports keep the known POMs current.
+ *
+ * @since 0.1.0
+ */
+public final class WorkspaceMavenService implements BuildService {
+  /** The deepest directory searched for POM files. */
+  private static final int MAX_DEPTH = 8;
+
+  /** The property references in a value. */
+  private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(WorkspaceMavenService.class);
+
+  /** The local repository service. */
+  private final MavenService mavenService;
+
+  /** The POM files of the workspace. */
+  private final Set<Path> pomPaths = ConcurrentHashMap.newKeySet();
+
+  /** The parsed POM files, by path. */
+  private final Map<Path, PomFile> pomFiles = new ConcurrentHashMap<>();
+
+  /** Whether the workspace folders were searched for POM files. */
+  private boolean searched;
+
+  /** The workspace folders. */
+  private volatile List<Path> workspaceFolders = List.of();
+
+  /**
+   * Constructor.
+   *
+   * @param mavenService The local repository service.
+   */
+  public WorkspaceMavenService(MavenService mavenService) {
+    this.mavenService = mavenService;
+  }
+
+  @Override
+  public synchronized void setWorkspaceFolders(List<Path> workspaceFolders) {
+    this.workspaceFolders = List.copyOf(workspaceFolders);
+    this.searched = false;
+  }
+
+  @Override
+  public Optional<String> getVersion(final String groupId, final String artifactId) {
+    final List<MavenVersion> installed = this.mavenService.getVersions(groupId, artifactId);
+
+    // a pinned 1.0 matches an installed 1.0.0, whose directory name is the one to resolve.
+    final Optional<MavenVersion> pinned =
+        getPinnedVersions(groupId, artifactId).stream()
+            .map(MavenVersion::new)
+            .sorted(Comparator.reverseOrder())
+            .flatMap(version -> installed.stream().filter(version::equals))
+            .findFirst();
+
+    if (pinned.isPresent()) {
+      return Optional.of(pinned.get().getValue());
+    }
+
+    return this.mavenService.getVersion(groupId, artifactId);
+  }
+
+  @Override
+  public List<String> getWatchedFiles(final String groupId, final String artifactId) {
+    final List<String> watchedFiles =
+        new ArrayList<>(this.mavenService.getWatchedFiles(groupId, artifactId));
+
+    for (Path workspaceFolder : this.workspaceFolders) {
+      final String folder = MavenService.toGlob(workspaceFolder);
+      watchedFiles.add(folder + "/pom.xml");
+      watchedFiles.add(folder + "/**/pom.xml");
+    }
+
+    return watchedFiles;
+  }
+
+  @Override
+  public void fileChanged(final Path path, final boolean deleted) {
+    if (!path.getFileName().toString().equals("pom.xml") || !isInWorkspace(path)) {
+      return;
+    }
+
+    if (deleted) {
+      this.pomPaths.remove(path);
+      this.pomFiles.remove(path);
+    } else {
+      this.pomPaths.add(path);
+    }
+  }
+
+  @Override
+  public void refresh(final String groupId, final String artifactId) {
+    this.mavenService.refresh(groupId, artifactId);
+  }
+
+  @Override
+  public Path getArtifactPath(final String groupId, final String artifactId, final String version) {
+    return this.mavenService.getArtifactPath(groupId, artifactId, version);
+  }
+
+  /**
+   * Get the versions the workspace POMs pin for an artifact, through dependencies or dependency
+   * management.
+   *
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @return The pinned versions.
+   */
+  public Set<String> getPinnedVersions(final String groupId, final String artifactId) {
+    final List<PomFile> workspacePoms = loadPomFiles();
+    final Map<String, PomFile> byCoordinates = new HashMap<>();
+    for (PomFile pomFile : workspacePoms) {
+      byCoordinates.put(pomFile.getGroupId() + ":" + pomFile.getArtifactId(), pomFile);
+    }
+
+    final Set<String> versions = new HashSet<>();
+    for (PomFile pomFile : workspacePoms) {
+      final List<PomFile> lineage = getLineage(pomFile, byCoordinates);
+      final Map<String, String> properties = getProperties(lineage);
+
+      final List<Dependency> declared = new ArrayList<>(pomFile.getDependencies());
+      declared.addAll(pomFile.getManagedDependencies());
+
+      for (Dependency dependency : declared) {
+        if (!groupId.equals(interpolate(dependency.getGroupId(), properties))
+            || !artifactId.equals(interpolate(dependency.getArtifactId(), properties))) {
+          continue;
+        }
+
+        final String version =
+            dependency.getVersion() != null
+                ? interpolate(dependency.getVersion(), properties)
+                : getManagedVersion(lineage, properties, groupId, artifactId);
+        if (version != null && !version.contains("${")) {
+          versions.add(version);
+        }
+      }
+    }
+
+    if (versions.size() > 1) {
+      logger.info("Workspace pins several versions of {}:{}: {}", groupId, artifactId, versions);
+    }
+
+    return versions;
+  }
+
+  /**
+   * Get the version managed for an artifact by a POM or its parents.
+   *
+   * @param lineage The POM and its workspace parents, closest first.
+   * @param properties The properties of the POM.
+   * @param groupId The group id.
+   * @param artifactId The artifact id.
+   * @return The managed version, or null.
+   */
+  private static String getManagedVersion(
+      List<PomFile> lineage, Map<String, String> properties, String groupId, String artifactId) {
+    for (PomFile pomFile : lineage) {
+      for (Dependency managed : pomFile.getManagedDependencies()) {
+        if (groupId.equals(interpolate(managed.getGroupId(), properties))
+            && artifactId.equals(interpolate(managed.getArtifactId(), properties))
+            && managed.getVersion() != null) {
+          return interpolate(managed.getVersion(), properties);
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Get a POM and its parents found in the workspace.
+   *
+   * @param pomFile The POM.
+   * @param byCoordinates The workspace POMs, by group and artifact id.
+   * @return The POM and its parents, closest first.
+   */
+  private static List<PomFile> getLineage(PomFile pomFile, Map<String, PomFile> byCoordinates) {
+    final List<PomFile> lineage = new ArrayList<>();
+
+    PomFile current = pomFile;
+    while (current != null && !lineage.contains(current)) {
+      lineage.add(current);
+      final Dependency parent = current.getParent();
+      current =
+          parent == null
+              ? null
+              : byCoordinates.get(parent.getGroupId() + ":" + parent.getArtifactId());
+    }
+
+    return lineage;
+  }
+
+  /**
+   * Get the properties of a POM, with the child overriding its parents.
+   *
+   * @param lineage The POM and its workspace parents, closest first.
+   * @return The properties.
+   */
+  private static Map<String, String> getProperties(List<PomFile> lineage) {
+    final Map<String, String> properties = new HashMap<>();
+
+    for (int i = lineage.size() - 1; i >= 0; i--) {
+      properties.putAll(lineage.get(i).getProperties());
+    }
+
+    final PomFile pomFile = lineage.get(0);
+    putIfNotNull(properties, "project.groupId", pomFile.getGroupId());
+    putIfNotNull(properties, "project.artifactId", pomFile.getArtifactId());
+    putIfNotNull(properties, "project.version", pomFile.getVersion());
+    if (pomFile.getParent() != null) {
+      putIfNotNull(properties, "project.parent.groupId", pomFile.getParent().getGroupId());
+      putIfNotNull(properties, "project.parent.version", pomFile.getParent().getVersion());
+    }
+
+    return properties;
+  }
+
+  /**
+   * Put a property if it has a value.
+   *
+   * @param properties The properties.
+   * @param name The property name.
+   * @param value The property value, or null.
+   */
+  private static void putIfNotNull(Map<String, String> properties, String name, String value) {
+    if (value != null) {
+      properties.put(name, value);
+    }
+  }
+
+  /**
+   * Replace the property references in a value, leaving unknown ones in place.
+   *
+   * @param value The value, or null.
+   * @param properties The properties.
+   * @return The interpolated value, or null.
+   */
+  private static String interpolate(String value, Map<String, String> properties) {
+    String result = value;
+
+    // properties may reference other properties; the bound stops reference cycles.
+    for (int i = 0; i < 10 && result != null && result.contains("${"); i++) {
+      final Matcher matcher = PROPERTY.matcher(result);
+      final StringBuilder stringBuilder = new StringBuilder();
+      while (matcher.find()) {
+        final String replacement = properties.getOrDefault(matcher.group(1), matcher.group());
+        matcher.appendReplacement(stringBuilder, Matcher.quoteReplacement(replacement));
+      }
+      matcher.appendTail(stringBuilder);
+
+      if (stringBuilder.toString().equals(result)) {
+        break;
+      }
+      result = stringBuilder.toString();
+    }
+
+    return result;
+  }
+
+  /**
+   * Whether a path is in a workspace folder, outside build output and hidden directories.
+   *
+   * @param path The path.
+   * @return Whether POM files at the path belong to the workspace.
+   */
+  private boolean isInWorkspace(Path path) {
+    for (Path workspaceFolder : this.workspaceFolders) {
+      if (path.startsWith(workspaceFolder)) {
+        final Path relative = workspaceFolder.relativize(path);
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+          if (isExcluded(relative.getName(i).toString())) {
+            return false;
+          }
+        }
+        return relative.getNameCount() <= MAX_DEPTH;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Whether a directory is skipped when searching for POM files.
+   *
+   * @param name The directory name.
+   * @return Whether the directory is skipped.
+   */
+  private static boolean isExcluded(String name) {
+    return name.startsWith(".") || name.equals("target") || name.equals("node_modules");
+  }
+
+  /**
+   * Load the POM files of the workspace, parsing only the ones changed since the last load. The
+   * workspace folders are searched on the first load after they are set; later loads only read the
+   * POM files known from that search or from the changes the client reported.
+   *
+   * @return The POM files.
+   */
+  private List<PomFile> loadPomFiles() {
+    synchronized (this) {
+      if (!this.searched) {
+        this.pomPaths.clear();
+        this.pomFiles.clear();
+        this.pomPaths.addAll(findPomFiles());
+        this.searched = true;
+      }
+    }
+
+    final List<PomFile> result = new ArrayList<>();
+
+    for (Path path : this.pomPaths) {
+      try {
+        final long lastModified = Files.getLastModifiedTime(path).toMillis();
+        PomFile pomFile = this.pomFiles.get(path);
+        if (pomFile == null || pomFile.getLastModified() != lastModified) {
+          pomFile = PomFile.parse(path);
+          this.pomFiles.put(path, pomFile);
+        }
+        result.add(pomFile);
+      } catch (NoSuchFileException e) {
+        // deleted without the client reporting it.
+        this.pomPaths.remove(path);
+        this.pomFiles.remove(path);
+      } catch (IOException e) {
+        this.pomFiles.remove(path);
+        logger.warn("Could not parse POM file: {}", path, e);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Find the POM files in the workspace folders, skipping build output and hidden directories.
+   *
+   * @return The POM file paths.
+   */
+  private List<Path> findPomFiles() {
+    final List<Path> found = new ArrayList<>();
+
+    for (Path workspaceFolder : this.workspaceFolders) {
+      if (!Files.isDirectory(workspaceFolder)) {
+        continue;
+      }
+
+      try {
+        Files.walkFileTree(
+            workspaceFolder,
+            Set.of(),
+            MAX_DEPTH,
+            new SimpleFileVisitor<>() {
+              @Override
+              public FileVisitResult preVisitDirectory(
+                  Path directory, BasicFileAttributes attributes) {
+                final String name = String.valueOf(directory.getFileName());
+                if (!directory.equals(workspaceFolder) && isExcluded(name)) {
+                  return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+              }
+
+              @Override
+              public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (file.getFileName().toString().equals("pom.xml")) {
+                  found.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+              }
+
+              @Override
+              public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+              }
+            });
+      } catch (IOException e) {
+        logger.warn("Could not search workspace folder: {}", workspaceFolder, e);
+      }
+    }
+
+    return found;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency Histogram. Counts latencies in power-of-two microsecond buckets with {@link LongAdder}s,
+ * so recording never locks or allocates. Percentiles are reported as the upper bound of their
+ * bucket, i.e. within a factor of two.
+ *
+ * @since 0.1.0
+ */
+public final class LatencyHistogram {
+  /** The number of buckets, one per bit of the latency in microseconds. */
+  private static final int BUCKETS = Long.SIZE;
+
+  /** The recorded latencies, bucket i counting those below 2^i microseconds. */
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  /** The number of recorded latencies. */
+  private final LongAdder count = new LongAdder();
+
+  /** The sum of the recorded latencies, in nanoseconds. */
+  private final LongAdder total = new LongAdder();
+
+  /** The maximum recorded latency, in nanoseconds. */
+  private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+  /** Constructor. */
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos The latency, in nanoseconds.
+   */
+  public void record(long nanos) {
+    final long latency = Math.max(0, nanos);
+
+    this.buckets[Long.SIZE - Long.numberOfLeadingZeros(latency / 1000)].increment();
+    this.count.increment();
+    this.total.add(latency);
+    this.max.accumulate(latency);
+  }
+
+  /**
+   * Summarize the recorded latencies, in milliseconds. Latencies recorded meanwhile may be partly
+   * included.
+   *
+   * @return The count, mean, maximum and percentiles.
+   */
+  public Map<String, Object> toMap() {
+    final long[] counts = new long[BUCKETS];
+    long recorded = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets[i].sum();
+      recorded += counts[i];
+    }
+
+    final long maxNanos = this.max.get();
+    final Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("count", recorded);
+    summary.put("meanMs", recorded == 0 ? 0.0 : toMillis(this.total.sum() / recorded));
+    summary.put("p50Ms", toMillis(percentile(counts, recorded, 0.50, maxNanos)));
+    summary.put("p90Ms", toMillis(percentile(counts, recorded, 0.90, maxNanos)));
+    summary.put("p99Ms", toMillis(percentile(counts, recorded, 0.99, maxNanos)));
+    summary.put("maxMs", toMillis(maxNanos));
+
+    return summary;
+  }
+
+  /**
+   * Get a percentile of the bucket counts.
+   *
+   * @param counts The bucket counts.
+   * @param recorded The number of recorded latencies.
+   * @param quantile The quantile, between 0 and 1.
+   * @param maxNanos The maximum latency, bounding the last bucket.
+   * @return The upper bound of the percentile bucket, in nanoseconds.
+   */
+  private static long percentile(long[] counts, long recorded, double quantile, long maxNanos) {
+    final long rank = (long) Math.ceil(quantile * recorded);
+
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(maxNanos, i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) * 1000);
+      }
+    }
+
+    return maxNanos;
+  }
+
+  /**
+   * Convert nanoseconds to milliseconds, rounded to microseconds.
+   *
+   * @param nanos The nanoseconds.
+   * @return The milliseconds.
+   */
+  private static double toMillis(long nanos) {
+    return Math.round(nanos / 1000.0) / 1000.0;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+
+/**
+ * Message Metrics. Wraps the JSON-RPC message streams to record the latency of every LSP method,
+ * from the arrival of a request to its response, and the handling time of every notification.
+ *
+ * @since 0.1.0
+ */
+public final class MessageMetrics implements Function<MessageConsumer, MessageConsumer> {
+  /** The prefix of the LSP method histograms. */
+  private static final String PREFIX = "lsp.";
+
+  /** The metrics. */
+  private final Metrics metrics;
+
+  /** The pending client requests, by id. */
+  private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param metrics The metrics.
+   */
+  public MessageMetrics(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Wrap a message stream. The incoming stream is the one consumed by the remote endpoint.
+   *
+   * @param consumer The message consumer.
+   * @return The wrapped consumer.
+   */
+  @Override
+  public MessageConsumer apply(MessageConsumer consumer) {
+    if (consumer instanceof RemoteEndpoint) {
+      return message -> this.consumeIncoming(consumer, message);
+    }
+
+    return message -> this.consumeOutgoing(consumer, message);
+  }
+
+  /**
+   * Consume an incoming message, remembering requests and timing notifications.
+   *
+   * @param consumer The message consumer.
+   * @param message The message.
+   */
+  private void consumeIncoming(MessageConsumer consumer, Message message) {
+    if (message instanceof RequestMessage) {
+      final RequestMessage request = (RequestMessage) message;
+      this.pendingRequests.put(
+          request.getId(), new PendingRequest(request.getMethod(), System.nanoTime()));
+      consumer.consume(message);
+    } else if (message instanceof NotificationMessage) {
+      final long start = System.nanoTime();
+      try {
+        consumer.consume(message);
+      } finally {
+        this.metrics.recordSince(PREFIX + ((NotificationMessage) message).getMethod(), start);
+      }
+    } else {
+      consumer.consume(message);
+    }
+  }
+
+  /**
+   * Consume an outgoing message, recording the latency of responses.
+   *
+   * @param consumer The message consumer.
+   * @param message The message.
+   */
+  private void consumeOutgoing(MessageConsumer consumer, Message message) {
+    consumer.consume(message);
+
+    if (message instanceof ResponseMessage) {
+      final PendingRequest request =
+          this.pendingRequests.remove(((ResponseMessage) message).getId());
+      if (request != null) {
+        this.metrics.recordSince(PREFIX + request.method, request.start);
+      }
+    }
+  }
+
+  /** Pending request. */
+  private static final class PendingRequest {
+    /** The LSP method. */
+    private final String method;
+
+    /** The arrival time, in nanoseconds. */
+    private final long start;
+
+    /** Constructor. */
+    private PendingRequest(String method, long start) {
+      this.method = method;
+      this.start = start;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics. The latency histograms and gauges of the server, shared by every component. Recording is
+ * lock-free, so it stays on the hot paths.
+ *
+ * @since 0.1.0
+ */
+public final class Metrics {
+  /** The metrics of the server. */
+  private static final Metrics INSTANCE = new Metrics();
+
+  /** When the metrics started, in nanoseconds. */
+  private final long started = System.nanoTime();
+
+  /** The latency histograms, by name. */
+  private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+  /** The gauges, by name. */
+  private final Map<String, Long> gauges = new ConcurrentHashMap<>();
+
+  /** Constructor. */
+  private Metrics() {}
+
+  /**
+   * Get the metrics of the server.
+   *
+   * @return The metrics.
+   */
+  public static Metrics get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param name The histogram name.
+   * @param nanos The latency, in nanoseconds.
+   */
+  public void record(String name, long nanos) {
+    this.latencies.computeIfAbsent(name, key -> new LatencyHistogram()).record(nanos);
+  }
+
+  /**
+   * Record the latency since a start time.
+   *
+   * @param name The histogram name.
+   * @param start The start time, from {@link System#nanoTime()}.
+   */
+  public void recordSince(String name, long start) {
+    this.record(name, System.nanoTime() - start);
+  }
+
+  /**
+   * Set a gauge.
+   *
+   * @param name The gauge name.
+   * @param value The value.
+   */
+  public void setGauge(String name, long value) {
+    this.gauges.put(name, value);
+  }
+
+  /**
+   * Summarize the metrics, sorted by name.
+   *
+   * @return The uptime, the latency summaries and the gauges.
+   */
+  public Map<String, Object> toMap() {
+    final Map<String, Object> latencySummaries = new TreeMap<>();
+    this.latencies.forEach((name, histogram) -> latencySummaries.put(name, histogram.toMap()));
+
+    final Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("uptimeMs", (System.nanoTime() - this.started) / 1_000_000);
+    summary.put("latencies", latencySummaries);
+    summary.put("gauges", new TreeMap<>(this.gauges));
+
+    return summary;
+  }
+
+  /**
+   * Write the metrics to a JSON file.
+   *
+   * @param file The file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void dump(Path file) throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(file.toFile(), this.toMap());
+  }
+}
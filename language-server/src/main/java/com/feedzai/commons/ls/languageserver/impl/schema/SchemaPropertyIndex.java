@@ -0,0 +1,333 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.schema;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Schema Property Index. The Markdown description of every property of a set of schemas, flattened
+ * by property path when the schemas are indexed, so describing a property only takes a few map
+ * lookups.
+ *
+ * <p>Properties are keyed by their scope and name, e.g. {@code op=add/value/name}. The properties
+ * of a referenced schema are kept once, in the scope of its id, so recursive schemas stay finite,
+ * and the items of arrays are transparent: the properties of the items of an array property are
+ * indexed under the array property itself.
+ *
+ * @since 0.1.0
+ */
+public final class SchemaPropertyIndex {
+  /** Separates the steps of a property key. */
+  private static final char SEPARATOR = '/';
+
+  /** The indexed properties, by key. */
+  private final Map<String, IndexedProperty> properties;
+
+  /**
+   * Constructor.
+   *
+   * @param schemas The root schemas, by discriminator property and value.
+   * @param definitions The schemas referenced by the root schemas, by id.
+   */
+  public SchemaPropertyIndex(
+      Map<String, Map<String, JsonSchema>> schemas, Map<String, JsonSchema> definitions) {
+    this.properties = Map.copyOf(new Indexer(definitions).index(schemas));
+  }
+
+  /**
+   * Describe a property.
+   *
+   * @param discriminator The discriminator property of the root object.
+   * @param value The discriminator value of the root object.
+   * @param propertyPath The property names from the root object down to the property.
+   * @return The Markdown description, or empty if the property is unknown.
+   */
+  public Optional<String> describe(String discriminator, String value, List<String> propertyPath) {
+    String scope = rootScope(discriminator, value);
+
+    for (int i = 0; i < propertyPath.size() && scope != null; i++) {
+      final IndexedProperty property = this.properties.get(scope + SEPARATOR + propertyPath.get(i));
+      if (property == null) {
+        return Optional.empty();
+      }
+      if (i == propertyPath.size() - 1) {
+        return Optional.of(property.documentation);
+      }
+      scope = property.childScope;
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Get whether a property is required, either on its own schema or on the referenced one.
+   *
+   * @param schema The property schema.
+   * @param resolved The resolved property schema.
+   * @return required or optional.
+   */
+  private static String requirement(JsonSchema schema, JsonSchema resolved) {
+    final boolean required =
+        schema != null
+            && (Boolean.TRUE.equals(schema.getRequired())
+                || (resolved != null && Boolean.TRUE.equals(resolved.getRequired())));
+
+    return required ? "required" : "optional";
+  }
+
+  /**
+   * Append the allowed values of a schema, if it restricts them.
+   *
+   * @param stringBuilder The documentation.
+   * @param schema The resolved schema.
+   */
+  private static void appendEnums(StringBuilder stringBuilder, JsonSchema schema) {
+    final Set<String> enums = Schemas.getEnums(schema);
+    if (!enums.isEmpty()) {
+      stringBuilder.append(
+          enums.stream()
+              .sorted()
+              .map(value -> "`" + value + "`")
+              .collect(Collectors.joining(", ", " (one of ", ")")));
+    }
+  }
+
+  /**
+   * Get the schema holding the nested properties of a value, past any array items.
+   *
+   * @param schema The value schema.
+   * @return The innermost items schema, or the schema itself if it is not an array.
+   */
+  private static JsonSchema unwrap(JsonSchema schema) {
+    JsonSchema unwrapped = schema;
+    while (unwrapped != null && unwrapped.isArraySchema()) {
+      unwrapped = Schemas.getItems(unwrapped);
+    }
+
+    return unwrapped;
+  }
+
+  /**
+   * Get the scope of the properties of a root schema.
+   *
+   * @param discriminator The discriminator property.
+   * @param value The discriminator value.
+   * @return The scope.
+   */
+  private static String rootScope(String discriminator, String value) {
+    return discriminator + '=' + value;
+  }
+
+  /**
+   * Get the scope of the properties of a referenced schema.
+   *
+   * @param id The schema id.
+   * @return The scope.
+   */
+  private static String definitionScope(String id) {
+    return '#' + id;
+  }
+
+  /** Builds the properties of the index, holding the referenced schemas only while it runs. */
+  private static final class Indexer {
+    /** The schemas referenced by the indexed schemas, by id. */
+    private final Map<String, JsonSchema> definitions;
+
+    /**
+     * Constructor.
+     *
+     * @param definitions The schemas referenced by the indexed schemas, by id.
+     */
+    Indexer(Map<String, JsonSchema> definitions) {
+      this.definitions = definitions;
+    }
+
+    /**
+     * Index the properties of the root schemas and of the schemas they reference.
+     *
+     * @param schemas The root schemas, by discriminator property and value.
+     * @return The indexed properties, by key.
+     */
+    Map<String, IndexedProperty> index(Map<String, Map<String, JsonSchema>> schemas) {
+      final Map<String, IndexedProperty> indexed = new HashMap<>();
+
+      schemas.forEach(
+          (discriminator, schemasByValue) ->
+              schemasByValue.forEach(
+                  (value, schema) -> {
+                    final String scope = rootScope(discriminator, value);
+                    this.indexProperties(scope, schema, indexed);
+                    indexed.putIfAbsent(
+                        scope + SEPARATOR + discriminator,
+                        new IndexedProperty(this.documentRoot(discriminator, value, schema), null));
+                  }));
+      this.definitions.forEach(
+          (id, schema) -> this.indexProperties(definitionScope(id), unwrap(schema), indexed));
+
+      return indexed;
+    }
+
+    /**
+     * Index the properties of an object schema, descending into the inline nested objects.
+     *
+     * @param scope The scope of the properties.
+     * @param schema The object schema.
+     * @param indexed The indexed properties.
+     */
+    void indexProperties(String scope, JsonSchema schema, Map<String, IndexedProperty> indexed) {
+      if (schema == null || !schema.isObjectSchema()) {
+        return;
+      }
+
+      for (Map.Entry<String, JsonSchema> entry :
+          schema.asObjectSchema().getProperties().entrySet()) {
+        final String key = scope + SEPARATOR + entry.getKey();
+        final JsonSchema target = unwrap(entry.getValue());
+
+        String childScope = null;
+        if (target != null && target.get$ref() != null) {
+          childScope = definitionScope(target.get$ref());
+        } else if (target != null && target.getId() != null) {
+          childScope = definitionScope(target.getId());
+        } else if (target != null && target.isObjectSchema()) {
+          childScope = key;
+          this.indexProperties(key, target, indexed);
+        }
+
+        indexed.put(
+            key, new IndexedProperty(this.document(entry.getKey(), entry.getValue()), childScope));
+      }
+    }
+
+    /**
+     * Document a property with its type, whether it is required and the shape of its value.
+     *
+     * @param name The property name.
+     * @param schema The property schema.
+     * @return The Markdown documentation.
+     */
+    private String document(String name, JsonSchema schema) {
+      final JsonSchema resolved = this.dereference(schema);
+      final StringBuilder stringBuilder = new StringBuilder();
+
+      stringBuilder.append(
+          String.format(
+              "`%s`: %s, %s", name, this.getTypeLabel(resolved), requirement(schema, resolved)));
+      appendEnums(stringBuilder, resolved);
+
+      if (resolved != null && resolved.getDescription() != null) {
+        stringBuilder.append(String.format("%n%n%s", resolved.getDescription()));
+      }
+
+      this.appendShape(stringBuilder, this.dereference(unwrap(resolved)));
+
+      return stringBuilder.toString();
+    }
+
+    /**
+     * Document the discriminator property of a root schema with the shape of the root object,
+     * unless the schema documents the property itself.
+     *
+     * @param discriminator The discriminator property.
+     * @param value The discriminator value.
+     * @param schema The root schema.
+     * @return The Markdown documentation.
+     */
+    private String documentRoot(String discriminator, String value, JsonSchema schema) {
+      final StringBuilder stringBuilder = new StringBuilder();
+
+      stringBuilder.append(String.format("`\"%s\": \"%s\"`", discriminator, value));
+      this.appendShape(stringBuilder, schema);
+
+      return stringBuilder.toString();
+    }
+
+    /**
+     * Append the properties of an object schema, one level deep.
+     *
+     * @param stringBuilder The documentation.
+     * @param schema The resolved schema.
+     */
+    private void appendShape(StringBuilder stringBuilder, JsonSchema schema) {
+      if (schema == null || !schema.isObjectSchema()) {
+        return;
+      }
+
+      final Map<String, JsonSchema> nested = schema.asObjectSchema().getProperties();
+      if (!nested.isEmpty()) {
+        stringBuilder.append(String.format("%n"));
+      }
+      for (Map.Entry<String, JsonSchema> property : nested.entrySet()) {
+        final JsonSchema propertySchema = this.dereference(property.getValue());
+        stringBuilder.append(
+            String.format(
+                "%n- `%s`: %s, %s",
+                property.getKey(),
+                this.getTypeLabel(propertySchema),
+                requirement(property.getValue(), propertySchema)));
+        appendEnums(stringBuilder, propertySchema);
+      }
+    }
+
+    /**
+     * Get the type label of a schema, spelling out the item types of arrays.
+     *
+     * @param schema The resolved schema.
+     * @return The type label, e.g. array of string.
+     */
+    private String getTypeLabel(JsonSchema schema) {
+      if (schema != null && schema.isArraySchema()) {
+        final JsonSchema items = Schemas.getItems(schema);
+        return items == null ? "array" : "array of " + this.getTypeLabel(this.dereference(items));
+      }
+
+      return Schemas.getTypeName(schema);
+    }
+
+    /**
+     * Resolve a schema reference against the definitions.
+     *
+     * @param schema The schema, possibly a reference.
+     * @return The referenced schema, or the schema itself if it is not a known reference.
+     */
+    private JsonSchema dereference(JsonSchema schema) {
+      if (schema == null || schema.get$ref() == null) {
+        return schema;
+      }
+
+      return this.definitions.getOrDefault(schema.get$ref(), schema);
+    }
+  }
+
+  /** A property of the index. */
+  private static final class IndexedProperty {
+    /** The Markdown documentation. */
+    private final String documentation;
+
+    /** The scope of the nested properties, or null if the value has none. */
+    private final String childScope;
+
+    /**
+     * Constructor.
+     *
+     * @param documentation The Markdown documentation.
+     * @param childScope The scope of the nested properties, or null if the value has none.
+     */
+    IndexedProperty(String documentation, String childScope) {
+      this.documentation = documentation;
+      this.childScope = childScope;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.schema;
+
+import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import com.fasterxml.jackson.module.jsonSchema.types.ArraySchema;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON schema helpers.
+ *
+ * @since 0.1.0
+ */
+public final class Schemas {
+  /** Constructor. */
+  private Schemas() {}
+
+  /**
+   * Collect the schemas with an id, which other schemas may reference.
+   *
+   * @param schema The schema.
+   * @param definitions The definitions, by id.
+   */
+  public static void collectDefinitions(JsonSchema schema, Map<String, JsonSchema> definitions) {
+    if (schema == null) {
+      return;
+    }
+
+    if (schema.getId() != null && schema.get$ref() == null) {
+      if (definitions.putIfAbsent(schema.getId(), schema) != null) {
+        return;
+      }
+    }
+
+    if (schema.isObjectSchema()) {
+      schema
+          .asObjectSchema()
+          .getProperties()
+          .values()
+          .forEach(property -> collectDefinitions(property, definitions));
+    } else if (schema.isArraySchema()) {
+      collectDefinitions(getItems(schema), definitions);
+    }
+  }
+
+  /**
+   * Get the schema of a property.
+   *
+   * @param schema The object schema.
+   * @param name The property name.
+   * @return The property schema, or null if unknown.
+   */
+  public static JsonSchema getProperty(JsonSchema schema, String name) {
+    if (schema == null || !schema.isObjectSchema()) {
+      return null;
+    }
+
+    return schema.asObjectSchema().getProperties().get(name);
+  }
+
+  /**
+   * Get the schema of the items of an array.
+   *
+   * @param schema The array schema.
+   * @return The items schema, or null if unknown.
+   */
+  public static JsonSchema getItems(JsonSchema schema) {
+    if (schema == null || !schema.isArraySchema()) {
+      return null;
+    }
+
+    final ArraySchema.Items items = schema.asArraySchema().getItems();
+    if (items == null || !items.isSingleItems()) {
+      return null;
+    }
+
+    return items.asSingleItems().getSchema();
+  }
+
+  /**
+   * Get the allowed values of a string schema.
+   *
+   * @param schema The schema.
+   * @return The allowed values, empty if any value is allowed.
+   */
+  public static Set<String> getEnums(JsonSchema schema) {
+    if (schema == null || !schema.isStringSchema() || schema.asStringSchema().getEnums() == null) {
+      return Collections.emptySet();
+    }
+
+    return schema.asStringSchema().getEnums();
+  }
+
+  /**
+   * Get the type name of a schema.
+   *
+   * @param schema The schema.
+   * @return The type name.
+   */
+  public static String getTypeName(JsonSchema schema) {
+    if (schema == null || schema.getType() == null) {
+      return "any";
+    }
+
+    return schema.getType().value();
+  }
+
+  /**
+   * Get the snippet placeholder for a value of a schema.
+   *
+   * @param schema The schema.
+   * @param placeholder The placeholder number.
+   * @return The snippet placeholder.
+   */
+  public static String getPlaceholder(JsonSchema schema, int placeholder) {
+    if (schema != null && schema.isStringSchema()) {
+      return String.format("\"$%d\"", placeholder);
+    }
+    if (schema != null && schema.isObjectSchema()) {
+      return String.format("{$%d}", placeholder);
+    }
+    if (schema != null && schema.isArraySchema()) {
+      return String.format("[$%d]", placeholder);
+    }
+
+    return String.format("$%d", placeholder);
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.symbols;
+
+import com.feedzai.commons.ls.languageserver.impl.document.TextDocument;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode;
+import com.feedzai.commons.ls.languageserver.impl.json.SyntaxNode.Kind;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * Document Symbol Provider. Outlines the patches and conditions of a document, each named after its
+ * op or operator, with the conditions nested in their patches.
+ *
+ * <p>The symbols of a document version are computed once. The entries of each syntax node are kept
+ * while the node is alive and, since an edit only reparses the innermost container around it, only
+ * the edited entries are walked again for the next version.
+ *
+ * @since 0.1.0
+ */
+public final class DocumentSymbolProvider {
+  /** The symbols of the last outlined version of each document, by URI. */
+  private final Map<String, OutlinedDocument> outlinedDocuments = new ConcurrentHashMap<>();
+
+  /** The entries of each syntax node, positioned relative to the node. */
+  private final Map<SyntaxNode, List<PlacedEntry>> entriesByNode =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Get the symbols of a document.
+   *
+   * @param textDocument The document.
+   * @return The symbols, empty if the document is not JSON.
+   */
+  public List<DocumentSymbol> getSymbols(TextDocument textDocument) {
+    final OutlinedDocument outlined = this.outlinedDocuments.get(textDocument.getUri());
+    if (outlined != null && outlined.textDocument == textDocument) {
+      return outlined.symbols;
+    }
+
+    final List<DocumentSymbol> symbols = new ArrayList<>();
+    if (textDocument.getSyntaxTree() != null && textDocument.getSyntaxTree().getRoot() != null) {
+      final int start = textDocument.getSyntaxTree().getRoot().getStart();
+      for (PlacedEntry placed : this.getEntries(textDocument.getSyntaxTree().getRoot().getNode())) {
+        symbols.add(toSymbol(textDocument, start + placed.offset, placed.entry));
+      }
+    }
+
+    final List<DocumentSymbol> unmodifiable = Collections.unmodifiableList(symbols);
+    this.outlinedDocuments.put(
+        textDocument.getUri(), new OutlinedDocument(textDocument, unmodifiable));
+    return unmodifiable;
+  }
+
+  /**
+   * Forget a document, once closed.
+   *
+   * @param uri The document URI.
+   */
+  public void forget(String uri) {
+    this.outlinedDocuments.remove(uri);
+  }
+
+  /**
+   * Get the entries of a node: its own if it is a patch or a condition, otherwise those of its
+   * descendants.
+   *
+   * @param node The node.
+   * @return The entries, positioned relative to the node.
+   */
+  private List<PlacedEntry> getEntries(SyntaxNode node) {
+    if (node.getKind() != Kind.OBJECT
+        && node.getKind() != Kind.ARRAY
+        && node.getKind() != Kind.PROPERTY) {
+      return List.of();
+    }
+
+    final List<PlacedEntry> cached = this.entriesByNode.get(node);
+    if (cached != null) {
+      return cached;
+    }
+
+    final List<PlacedEntry> descendants = new ArrayList<>();
+    for (int i = 0; i < node.getChildCount(); i++) {
+      for (PlacedEntry placed : this.getEntries(node.getChild(i))) {
+        descendants.add(new PlacedEntry(node.getChildOffset(i) + placed.offset, placed.entry));
+      }
+    }
+
+    final List<PlacedEntry> entries =
+        node.getKind() == Kind.OBJECT
+            ? toEntry(node, descendants)
+                .map(entry -> List.of(new PlacedEntry(0, entry)))
+                .orElse(List.copyOf(descendants))
+            : List.copyOf(descendants);
+
+    this.entriesByNode.put(node, entries);
+    return entries;
+  }
+
+  /**
+   * Get the entry of an object, if it is a patch or a condition.
+   *
+   * @param object The object.
+   * @param children The entries of the descendants of the object.
+   * @return The entry, if the object has an op or an operator.
+   */
+  private static Optional<Entry> toEntry(SyntaxNode object, List<PlacedEntry> children) {
+    for (int i = 0; i < object.getChildCount(); i++) {
+      final SyntaxNode property = object.getChild(i);
+      final SyntaxNode key = property.getKey();
+      final SyntaxNode value = property.getPropertyValue();
+
+      if (key == null
+          || value == null
+          || value.getKind() != Kind.STRING
+          || !(SymbolScanner.OP.equals(key.getValue())
+              || SymbolScanner.OPERATOR.equals(key.getValue()))) {
+        continue;
+      }
+
+      final SyntaxNode path = object.getProperty(SymbolScanner.PATH);
+
+      return Optional.of(
+          new Entry(
+              value.getValue(),
+              SymbolScanner.OP.equals(key.getValue()) ? SymbolKind.Function : SymbolKind.Operator,
+              path != null && path.getKind() == Kind.STRING ? path.getValue() : null,
+              object.getLength(),
+              object.getChildOffset(i) + property.getChildOffset(1),
+              value.getLength(),
+              children));
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Convert an entry to a document symbol.
+   *
+   * @param textDocument The document.
+   * @param start The entry start offset.
+   * @param entry The entry.
+   * @return The document symbol.
+   */
+  private static DocumentSymbol toSymbol(TextDocument textDocument, int start, Entry entry) {
+    final List<DocumentSymbol> children = new ArrayList<>(entry.children.size());
+    for (PlacedEntry child : entry.children) {
+      children.add(toSymbol(textDocument, start + child.offset, child.entry));
+    }
+
+    final int selectionStart = start + entry.selectionOffset;
+
+    return new DocumentSymbol(
+        entry.name,
+        entry.kind,
+        new Range(textDocument.positionAt(start), textDocument.positionAt(start + entry.length)),
+        new Range(
+            textDocument.positionAt(selectionStart),
+            textDocument.positionAt(selectionStart + entry.selectionLength)),
+        entry.detail,
+        children);
+  }
+
+  /** A patch or a condition, positioned relative to its object. */
+  private static final class Entry {
+    /** The op or operator. */
+    private final String name;
+
+    /** The symbol kind. */
+    private final SymbolKind kind;
+
+    /** The JSON path, or null. */
+    private final String detail;
+
+    /** The object length. */
+    private final int length;
+
+    /** The offset of the op or operator value. */
+    private final int selectionOffset;
+
+    /** The length of the op or operator value. */
+    private final int selectionLength;
+
+    /** The nested conditions. */
+    private final List<PlacedEntry> children;
+
+    /** Constructor. */
+    Entry(
+        String name,
+        SymbolKind kind,
+        String detail,
+        int length,
+        int selectionOffset,
+        int selectionLength,
+        List<PlacedEntry> children) {
+      this.name = name;
+      this.kind = kind;
+      this.detail = detail;
+      this.length = length;
+      this.selectionOffset = selectionOffset;
+      this.selectionLength = selectionLength;
+      this.children = children;
+    }
+  }
+
+  /** An entry at an offset relative to an enclosing node. */
+  private static final class PlacedEntry {
+    /** The offset. */
+    private final int offset;
+
+    /** The entry. */
+    private final Entry entry;
+
+    /** Constructor. */
+    PlacedEntry(int offset, Entry entry) {
+      this.offset = offset;
+      this.entry = entry;
+    }
+  }
+
+  /** The symbols of a document version. */
+  private static final class OutlinedDocument {
+    /** The document version. */
+    private final TextDocument textDocument;
+
+    /** The symbols. */
+    private final List<DocumentSymbol> symbols;
+
+    /** Constructor. */
+    OutlinedDocument(TextDocument textDocument, List<DocumentSymbol> symbols) {
+      this.textDocument = textDocument;
+      this.symbols = symbols;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.symbols;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.feedzai.commons.ls.languageserver.impl.json.JsonFactories;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Symbol Scanner. Streams a patch file, without building a tree, and finds the patch ops, the
+ * condition operators, and the JSON paths of the patches and conditions.
+ *
+ * @since 0.1.0
+ */
+public final class SymbolScanner {
+  /** The discriminator property of patches. */
+  static final String OP = "op";
+
+  /** The discriminator property of conditions. */
+  static final String OPERATOR = "operator";
+
+  /** The JSON path property of patches and conditions. */
+  static final String PATH = "path";
+
+  /** Constructor. */
+  private SymbolScanner() {}
+
+  /**
+   * Scan a patch file. A file that is not valid JSON yields the symbols before the first error.
+   *
+   * @param uri The file URI, used in the symbol locations.
+   * @param reader The file contents.
+   * @return The symbols, in the order their objects end.
+   * @throws IOException If the file cannot be read.
+   */
+  public static List<WorkspaceSymbol> scan(String uri, Reader reader) throws IOException {
+    final List<WorkspaceSymbol> symbols = new ArrayList<>();
+    final String fileName = uri.substring(uri.lastIndexOf('/') + 1);
+
+    // one frame per open object, holding its path until its discriminator is known.
+    final Deque<Frame> frames = new ArrayDeque<>();
+
+    try (JsonParser parser = JsonFactories.TOLERANT.createParser(reader)) {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        if (token == JsonToken.START_OBJECT) {
+          frames.push(new Frame());
+        } else if (token == JsonToken.END_OBJECT && !frames.isEmpty()) {
+          frames.pop().close(fileName, symbols);
+        } else if (token == JsonToken.VALUE_STRING && !frames.isEmpty()) {
+          final String property = parser.currentName();
+          if (OP.equals(property) || OPERATOR.equals(property) || PATH.equals(property)) {
+            frames.peek().add(property, parser.getText(), location(uri, parser));
+          }
+        }
+      }
+    } catch (JsonParseException e) {
+      // keep what was found so far, the file is likely being edited.
+    }
+
+    return symbols;
+  }
+
+  /**
+   * Get the location of the current string token. The parser reads the string to get its text, so
+   * its current location is just past the closing quote.
+   *
+   * @param uri The file URI.
+   * @param parser The parser, positioned after the text of a string token.
+   * @return The location of the token, quotes included.
+   */
+  private static Location location(String uri, JsonParser parser) {
+    final JsonLocation start = parser.currentTokenLocation();
+    final JsonLocation end = parser.currentLocation();
+
+    return new Location(
+        uri,
+        new Range(
+            new Position(start.getLineNr() - 1, start.getColumnNr() - 1),
+            new Position(end.getLineNr() - 1, end.getColumnNr() - 1)));
+  }
+
+  /** The symbols of an open object. */
+  private static final class Frame {
+    /** The discriminator symbol, an op or an operator. */
+    private WorkspaceSymbol discriminator;
+
+    /** The path symbol. */
+    private WorkspaceSymbol path;
+
+    /**
+     * Add a symbol of the object.
+     *
+     * @param property The property.
+     * @param value The string value.
+     * @param location The location of the value.
+     */
+    void add(String property, String value, Location location) {
+      if (PATH.equals(property)) {
+        this.path = new WorkspaceSymbol(value, SymbolKind.Key, Either.forLeft(location));
+      } else {
+        this.discriminator =
+            new WorkspaceSymbol(
+                value,
+                OP.equals(property) ? SymbolKind.Function : SymbolKind.Operator,
+                Either.forLeft(location));
+      }
+    }
+
+    /**
+     * Close the object, keeping its symbols if it is a patch or a condition.
+     *
+     * @param fileName The file name, the container of the discriminator.
+     * @param symbols The symbols of the file.
+     */
+    void close(String fileName, List<WorkspaceSymbol> symbols) {
+      if (this.discriminator == null) {
+        return;
+      }
+
+      this.discriminator.setContainerName(fileName);
+      symbols.add(this.discriminator);
+
+      if (this.path != null) {
+        this.path.setContainerName(this.discriminator.getName());
+        symbols.add(this.path);
+      }
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.symbols;
+
+import com.feedzai.commons.ls.languageserver.impl.metrics.Metrics;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Workspace Symbol Index. Crawls the workspace folders in the background, scanning the patch files
+ * in parallel, and keeps an inverted index from symbol names to their locations in memory, updated
+ * file by file as the files change.
+ *
+ * @since 0.1.0
+ */
+public final class WorkspaceSymbolIndex {
+  /** Directories never crawled, besides hidden ones. */
+  private static final Set<String> SKIPPED_DIRECTORIES = Set.of("target", "build", "node_modules");
+
+  /** Logger for this class. */
+  private final Logger logger = LoggerFactory.getLogger(WorkspaceSymbolIndex.class);
+
+  /** The file extensions to crawl. */
+  private final Set<String> fileExtensions;
+
+  /** The crawler executor, bounding how many files are read at once. */
+  private final ExecutorService executor;
+
+  /** The symbols, by lower case name and then by file URI. */
+  private final Map<String, Map<String, List<WorkspaceSymbol>>> symbolsByName =
+      new ConcurrentSkipListMap<>();
+
+  /** The lower case symbol names, by file URI. */
+  private final Map<String, Set<String>> namesByUri = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param fileExtensions The file extensions to crawl.
+   */
+  public WorkspaceSymbolIndex(Collection<String> fileExtensions) {
+    this.fileExtensions = Set.copyOf(fileExtensions);
+
+    final AtomicInteger threads = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "feedzails-symbols-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Get the glob patterns of the files to watch to keep the index up to date.
+   *
+   * @return The glob patterns.
+   */
+  public List<String> getWatchedFiles() {
+    return this.fileExtensions.stream()
+        .sorted()
+        .map(extension -> "**/*." + extension)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Whether a file is indexed, by its extension.
+   *
+   * @param file The file.
+   * @return true if the file is indexed, false otherwise.
+   */
+  public boolean accepts(Path file) {
+    final String name = file.getFileName() == null ? "" : file.getFileName().toString();
+    final int dot = name.lastIndexOf('.');
+
+    return dot >= 0 && this.fileExtensions.contains(name.substring(dot + 1));
+  }
+
+  /**
+   * Crawl workspace folders in the background, indexing every file found.
+   *
+   * @param folders The workspace folders.
+   * @return The crawl, complete once every file is indexed.
+   */
+  public CompletableFuture<Void> crawl(List<Path> folders) {
+    final long start = System.nanoTime();
+
+    return CompletableFuture.supplyAsync(() -> this.walk(folders), this.executor)
+        .thenCompose(
+            files ->
+                CompletableFuture.allOf(
+                        files.stream().map(this::update).toArray(CompletableFuture<?>[]::new))
+                    .thenRun(
+                        () -> {
+                          Metrics.get().recordSince("symbols.crawl", start);
+                          Metrics.get().setGauge("symbols.files", this.namesByUri.size());
+                          this.logger.info(
+                              "Indexed the symbols of {} files in {} ms",
+                              files.size(),
+                              (System.nanoTime() - start) / 1_000_000);
+                        }));
+  }
+
+  /**
+   * Index a file again in the background, or drop it if it no longer exists.
+   *
+   * @param file The file.
+   * @return The update, complete once the file is indexed.
+   */
+  public CompletableFuture<Void> update(Path file) {
+    return CompletableFuture.runAsync(
+        () -> {
+          final String uri = file.toUri().toString();
+
+          try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            this.put(uri, SymbolScanner.scan(uri, reader));
+          } catch (NoSuchFileException e) {
+            this.remove(uri);
+          } catch (IOException e) {
+            this.logger.warn("Could not index the symbols of {}", file, e);
+          }
+        },
+        this.executor);
+  }
+
+  /**
+   * Drop a file from the index.
+   *
+   * @param file The file.
+   */
+  public void remove(Path file) {
+    this.remove(file.toUri().toString());
+  }
+
+  /**
+   * Drop the symbols of a file.
+   *
+   * @param uri The file URI.
+   */
+  private synchronized void remove(String uri) {
+    final Set<String> names = this.namesByUri.remove(uri);
+    if (names == null) {
+      return;
+    }
+
+    for (String name : names) {
+      final Map<String, List<WorkspaceSymbol>> symbolsByUri = this.symbolsByName.get(name);
+      symbolsByUri.remove(uri);
+      if (symbolsByUri.isEmpty()) {
+        this.symbolsByName.remove(name);
+      }
+    }
+  }
+
+  /**
+   * Search the symbols whose name contains a query, ignoring case, in the files of some workspace
+   * folders. Names starting with the query come first.
+   *
+   * @param query The query, empty to match every symbol.
+   * @param limit The maximum number of symbols.
+   * @param folders The workspace folders searched.
+   * @return The matching symbols.
+   */
+  public List<WorkspaceSymbol> search(String query, int limit, List<Path> folders) {
+    final List<String> folderUris = new ArrayList<>();
+    for (Path folder : folders) {
+      final String folderUri = folder.toUri().toString();
+      folderUris.add(folderUri.endsWith("/") ? folderUri : folderUri + "/");
+    }
+
+    final String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+    final List<String> prefixMatches = new ArrayList<>();
+    final List<String> otherMatches = new ArrayList<>();
+
+    for (String name : this.symbolsByName.keySet()) {
+      final int index = name.indexOf(lowerCaseQuery);
+      if (index == 0) {
+        prefixMatches.add(name);
+      } else if (index > 0) {
+        otherMatches.add(name);
+      }
+    }
+
+    final List<WorkspaceSymbol> symbols = new ArrayList<>();
+    prefixMatches.addAll(otherMatches);
+
+    for (String name : prefixMatches) {
+      final Map<String, List<WorkspaceSymbol>> symbolsByUri = this.symbolsByName.get(name);
+      if (symbolsByUri == null) {
+        continue;
+      }
+
+      for (Map.Entry<String, List<WorkspaceSymbol>> fileSymbols : symbolsByUri.entrySet()) {
+        if (folderUris.stream().noneMatch(fileSymbols.getKey()::startsWith)) {
+          continue;
+        }
+
+        for (WorkspaceSymbol symbol : fileSymbols.getValue()) {
+          if (symbols.size() == limit) {
+            return symbols;
+          }
+          symbols.add(symbol);
+        }
+      }
+    }
+
+    return symbols;
+  }
+
+  /**
+   * Find the files to index under workspace folders.
+   *
+   * @param folders The workspace folders.
+   * @return The files.
+   */
+  private List<Path> walk(List<Path> folders) {
+    final List<Path> files = new ArrayList<>();
+
+    for (Path folder : folders) {
+      try {
+        Files.walkFileTree(
+            folder,
+            new SimpleFileVisitor<>() {
+              @Override
+              public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                final String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+
+                return !dir.equals(folder)
+                        && (name.startsWith(".") || SKIPPED_DIRECTORIES.contains(name))
+                    ? FileVisitResult.SKIP_SUBTREE
+                    : FileVisitResult.CONTINUE;
+              }
+
+              @Override
+              public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && accepts(file)) {
+                  files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+              }
+
+              @Override
+              public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+              }
+            });
+      } catch (IOException e) {
+        this.logger.warn("Could not crawl {}", folder, e);
+      }
+    }
+
+    return files;
+  }
+
+  /**
+   * Replace the symbols of a file.
+   *
+   * @param uri The file URI.
+   * @param symbols The symbols of the file.
+   */
+  private synchronized void put(String uri, List<WorkspaceSymbol> symbols) {
+    this.remove(uri);
+
+    final Map<String, List<WorkspaceSymbol>> byName = new LinkedHashMap<>();
+    symbols.forEach(
+        symbol ->
+            byName
+                .computeIfAbsent(
+                    symbol.getName().toLowerCase(Locale.ROOT), name -> new ArrayList<>())
+                .add(symbol));
+
+    byName.forEach(
+        (name, nameSymbols) ->
+            this.symbolsByName
+                .computeIfAbsent(name, key -> new ConcurrentHashMap<>())
+                .put(uri, List.copyOf(nameSymbols)));
+    this.namesByUri.put(uri, new HashSet<>(byName.keySet()));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * The copyright of this file belongs to Feedzai. The file cannot be reproduced in whole or in part,
+ * stored in a retrieval system, transmitted in any form, or by any means electronic, mechanical,
+ * photocopying, or otherwise, without the prior permission of the owner.
+ *
+ * © 2023 Feedzai, Strictly Confidential
+ */
+
+package com.feedzai.commons.ls.languageserver.impl.maven;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Tests for {@link MavenVersion}.
+ *
+ * @since 0.1.0
+ */
+class MavenVersionTest {
+
+  /**
+   * Check that the ordering and equality match Maven's.
+   *
+   * @param left The left version.
+   * @param right The right version.
+   * @param expected The expected sign of comparing left with right.
+   */
+  @ParameterizedTest
+  @CsvSource({
+    "2.0.0.RC1, 2.0.0-SNAPSHOT, -1",
+    "2.0.0.M1, 2.0.0-SNAPSHOT, -1",
+    "5.4.0.CR1, 5.4.0-SNAPSHOT, -1",
+    "1.2.0.rc1, 1.2.0-rc2, -1",
+    "1.0-SNAPSHOT, 1.0.RC1, 1",
+    "2-cr1, 2.sp1, -1",
+    "3-RELEASE.M1, 3, -1",
+    "1.2.0-rc1, 1.2.0-SNAPSHOT, -1",
+    "1.2.0-SNAPSHOT, 1.2, -1",
+    "1.2, 1.2.0-sp1, -1",
+    "1.2.0-alpha1, 1.2.0-a2, -1",
+    "1.10, 1.9, 1",
+    "1.0, 1.0.0, 0",
+    "1-ga, 1, 0",
+    "1.0-final, 1, 0"
+  })
+  void ordersLikeMaven(String left, String right, int expected) {
+    final MavenVersion l = new MavenVersion(left);
+    final MavenVersion r = new MavenVersion(right);
+
+    assertEquals(expected, Integer.signum(l.compareTo(r)));
+    assertEquals(-expected, Integer.signum(r.compareTo(l)));
+    assertEquals(
+        expected,
+        Integer.signum(new ComparableVersion(left).compareTo(new ComparableVersion(right))));
+    assertEquals(expected == 0, l.equals(r));
+    if (expected == 0) {
+      assertEquals(l.hashCode(), r.hashCode());
+    }
+  }
+}